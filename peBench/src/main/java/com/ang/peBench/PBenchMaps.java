@@ -0,0 +1,174 @@
+package com.ang.peBench;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import com.ang.peLib.exceptions.PParseException;
+import com.ang.peLib.files.pmap.PPMapData;
+import com.ang.peLib.files.pmap.PPMapParser;
+
+/**
+ * Provides the maps that benchmarks are run on.
+ * Maps are named either by the filename of a map bundled in the resources of
+ * peCore (for example {@code test.pmap}), or as {@code grid:<n>} for a
+ * synthetic map of n by n rooms. Synthetic maps are generated from a fixed
+ * seed, so the same name always gives the same map.
+ * <p>
+ * Each room of a synthetic map is a square. Sides shared with a 
+ * neighbouring room are mostly portals. Sides that are walls have a corner 
+ * added at their midpoint, which is never a portal, so a wall between 2 
+ * portals stays a wall. Rooms are kept convex, so decomposing a synthetic 
+ * map only measures the checks for concave corners. Floor and ceiling 
+ * heights vary between rooms, below and above the camera, so rooms seen 
+ * through portals have their walls, floors and ceilings at other heights. 
+ * The camera does not draw upper or lower walls for portals.
+ */
+public class PBenchMaps {
+	private final static String GRID_PREFIX = "grid:";
+	private final static double ROOM_SIZE = 4.0;
+	private final static double OPEN_CHANCE = 0.75;
+	private final static long SEED = 123L;
+
+	/**
+	 * Returns the lines of a map, as they would be read from a .pmap file.
+	 * Blank lines are removed, the same as when reading map resources.
+	 * @param  name 	   the name of the map to get
+	 * @return 			   the lines of the map
+	 * @throws IOException if a bundled map cannot be read
+	 */
+	public static String[] lines(String name) throws IOException {
+		if (name.startsWith(GRID_PREFIX)) {
+			return grid(Integer.parseInt(name.substring(GRID_PREFIX.length())));
+
+		}
+		return resource("/map/" + name);
+
+	}
+
+	/**
+	 * Parses a map.
+	 * @param  name 	   the name of the map to parse
+	 * @return 			   the parsed map data
+	 * @throws IOException if the map cannot be read or parsed
+	 */
+	public static PPMapData load(String name) throws IOException {
+		try {
+			return new PPMapParser(name).parseMapData(lines(name));
+
+		} catch (PParseException e) {
+			throw new IOException("failed to parse map " + name, e);
+
+		}
+	}
+
+	/**
+	 * Returns the non-blank lines of a resource on the classpath.
+	 * @param  path 	   the path of the resource, from the root of the
+	 * 					   classpath
+	 * @return 			   the lines of the resource
+	 * @throws IOException if the resource cannot be found or read
+	 */
+	public static String[] resource(String path) throws IOException {
+		InputStream in = PBenchMaps.class.getResourceAsStream(path);
+		if (in == null) {
+			throw new IOException("resource not found: " + path);
+
+		}
+		List<String> out = new ArrayList<String>();
+		try (BufferedReader reader = new BufferedReader(
+				new InputStreamReader(in, StandardCharsets.UTF_8))) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				if (!line.isBlank()) out.add(line);
+			}
+		}
+		return out.toArray(new String[0]);
+
+	}
+
+	/**
+	 * Generates the lines of a synthetic map of square rooms.
+	 * The camera starts in the bottom left room, facing along the bottom row.
+	 * @param  size the amount of rooms along each side of the map
+	 * @return 		the lines of the map
+	 */
+	public static String[] grid(int size) {
+		Random rand = new Random(SEED);
+		// open[0] holds the right side of each room, open[1] the top side
+		boolean[][][] open = new boolean[2][size][size];
+		for (int i = 0; i < size; i++) {
+			for (int j = 0; j < size; j++) {
+				open[0][i][j] = (i < size - 1) && (rand.nextDouble() < OPEN_CHANCE);
+				open[1][i][j] = (j < size - 1) && (rand.nextDouble() < OPEN_CHANCE);
+			}
+		}
+		// keep the view from the starting room open
+		if (size > 1) open[0][0][0] = true;
+		List<String> corners = new ArrayList<String>();
+		List<String> sectors = new ArrayList<String>();
+		List<String> heights = new ArrayList<String>();
+		List<String> portals = new ArrayList<String>();
+		for (int j = 0; j < size; j++) {
+			for (int i = 0; i < size; i++) {
+				sectors.add(Integer.toString(corners.size()));
+				double x0 = i * ROOM_SIZE;
+				double y0 = j * ROOM_SIZE;
+				double x1 = x0 + ROOM_SIZE;
+				double y1 = y0 + ROOM_SIZE;
+				double xm = x0 + ROOM_SIZE / 2.0;
+				double ym = y0 + ROOM_SIZE / 2.0;
+				// bottom, right, top and left sides, anticlockwise
+				boolean[] sideOpen = {
+					(j > 0) && open[1][i][j - 1],
+					open[0][i][j],
+					open[1][i][j],
+					(i > 0) && open[0][i - 1][j]
+				};
+				double[][] sides = {
+					{x0, y0, xm, y0},
+					{x1, y0, x1, ym},
+					{x1, y1, xm, y1},
+					{x0, y1, x0, ym}
+				};
+				for (int s = 0; s < sides.length; s++) {
+					// portal sides join their 2 corners directly, which are both portals
+					if (sideOpen[s] || sideOpen[(s + 3) % 4]) {
+						portals.add(Integer.toString(corners.size()));
+					}
+					corners.add(sides[s][0] + " " + sides[s][1]);
+					if (!sideOpen[s]) {
+						corners.add(sides[s][2] + " " + sides[s][3]);
+					}
+				}
+				double floor = rand.nextInt(5) * 0.25 - 1.0;
+				double ceiling = floor + 3.0 + rand.nextInt(4) * 0.5;
+				heights.add(floor + " " + ceiling);
+			}
+		}
+		List<String> lines = new ArrayList<String>();
+		lines.add("!PMAPv1.0.0");
+		lines.add("!CORNER");
+		lines.addAll(corners);
+		lines.add("!SECTOR");
+		lines.addAll(sectors);
+		lines.add("!HEIGHT");
+		lines.addAll(heights);
+		lines.add("!PORTAL");
+		lines.addAll(portals);
+		lines.add("!POSITION");
+		// off the centre of the room, which decomposition may split through
+		lines.add((ROOM_SIZE * 0.3) + " " + (ROOM_SIZE * 0.4));
+		lines.add("!FACING");
+		lines.add("1.0 0.0");
+		lines.add("!COLOUR");
+		lines.add("1.0 1.0 1.0");
+		return lines.toArray(new String[0]);
+
+	}
+}
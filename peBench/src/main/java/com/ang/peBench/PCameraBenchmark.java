@@ -0,0 +1,108 @@
+package com.ang.peBench;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.ang.peCore.PCamera;
+import com.ang.peCore.PGameParams;
+import com.ang.peLib.files.pmap.PPMapData;
+import com.ang.peLib.hittables.PSectorWorld;
+import com.ang.peLib.maths.PVec2;
+import com.ang.peLib.utils.PConvexDecomposer;
+
+/**
+ * Benchmarks drawing full frames with a headless camera.
+ * The camera stands at the map's starting position. It turns a little 
+ * before every frame of {@link #draw()} so hits are always found again, 
+ * while {@link #redraw()} keeps still so the last frame's hits are reused. 
+ * Forks run with {@code java.awt.headless=true}, so no window is needed.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class PCameraBenchmark {
+	private final static double TURN_STEP = 0.01;
+
+	@Param({"test.pmap", "grid:8", "grid:16"})
+	public String map;
+
+	@Param({"1", "0"})
+	public int renderThreads;
+
+	@Param({"false", "true"})
+	public boolean projectedWalls;
+
+	private PCamera camera;
+	private PSectorWorld world;
+	private PVec2 position;
+	private double facing;
+
+	/**
+	 * Loads and decomposes the map, and sets up the camera to draw it.
+	 * @throws IOException if the map cannot be loaded
+	 */
+	@Setup
+	public void setup() throws IOException {
+		PPMapData data = PBenchMaps.load(map);
+		world = new PConvexDecomposer(data.world).decompose();
+		position = data.position;
+		facing = Math.atan2(data.facing.y(), data.facing.x());
+		PGameParams params = new PGameParams();
+		params.imageWidth = 320;
+		params.imageHeight = 180;
+		params.fov = Math.PI / 2.0;
+		params.renderThreads = renderThreads;
+		params.projectedWalls = projectedWalls;
+		camera = new PCamera(params);
+		camera.initHeadless();
+		camera.setTransform(position, new PVec2(Math.cos(facing), Math.sin(facing)));
+		camera.update();
+	}
+
+	/**
+	 * Stops the camera's render threads, so trials do not leave them running.
+	 */
+	@TearDown
+	public void tearDown() {
+		camera.close();
+	}
+
+	/**
+	 * Turns the camera and draws a frame.
+	 * @return the time in ms the camera took to draw the frame
+	 */
+	@Benchmark
+	public long draw() {
+		facing += TURN_STEP;
+		camera.setTransform(position, new PVec2(Math.cos(facing), Math.sin(facing)));
+		camera.update();
+		return camera.draw(world);
+
+	}
+
+	/**
+	 * Draws a frame without moving the camera.
+	 * @return the time in ms the camera took to draw the frame
+	 */
+	@Benchmark
+	public long redraw() {
+		return camera.draw(world);
+
+	}
+}
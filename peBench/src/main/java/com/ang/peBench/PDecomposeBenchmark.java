@@ -0,0 +1,67 @@
+package com.ang.peBench;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.ang.peLib.hittables.PSectorWorld;
+import com.ang.peLib.utils.PConvexDecomposer;
+
+/**
+ * Benchmarks convex decomposition of a parsed map.
+ * Decomposition changes the world it is given, so each invocation decomposes 
+ * a fresh copy of the parsed world. The cost of copying it is measured 
+ * separately by {@link #copyOnly()}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PDecomposeBenchmark {
+	@Param({"test.pmap", "grid:8", "grid:16"})
+	public String map;
+
+	private PSectorWorld parsed;
+
+	/**
+	 * Parses the map.
+	 * @throws IOException if the map cannot be loaded
+	 */
+	@Setup
+	public void setup() throws IOException {
+		parsed = PBenchMaps.load(map).world;
+	}
+
+	/**
+	 * Copies the parsed world and decomposes it.
+	 * @return the decomposed world
+	 */
+	@Benchmark
+	public PSectorWorld decompose() {
+		return new PConvexDecomposer(parsed.copy()).decompose();
+
+	}
+
+	/**
+	 * Copies the parsed world without decomposing it.
+	 * @return the copied world
+	 */
+	@Benchmark
+	public PSectorWorld copyOnly() {
+		return parsed.copy();
+
+	}
+}
@@ -0,0 +1,123 @@
+package com.ang.peBench;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.ang.peLib.files.pmap.PPMapData;
+import com.ang.peLib.hittables.PCompiledWorld;
+import com.ang.peLib.hittables.PEdgeGrid;
+import com.ang.peLib.hittables.PEdgeKernel;
+import com.ang.peLib.hittables.PHitList;
+import com.ang.peLib.hittables.PSectorWorld;
+import com.ang.peLib.utils.PConvexDecomposer;
+
+/**
+ * Compares the backends used to find every hit of a ray with a compiled world.
+ * The scalar and vector backends test every edge of the world, a block of
+ * edges at a time, while the grid backend only tests the edges in the cells
+ * of a {@link PEdgeGrid} that the ray passes through. The sectors backend is
+ * the baseline they replace, calling {@code PSector.allHits} for each sector 
+ * of the world in turn. Each invocation casts a fan of rays from the map's 
+ * starting position, the same as the columns of one frame, so results are 
+ * per frame of rays.
+ * <p>
+ * Forks add the {@code jdk.incubator.vector} module so that the vector
+ * backend is available.
+ * @see PEdgeKernel
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class PEdgeKernelBenchmark {
+	private final static int RAY_COUNT = 320;
+
+	@Param({"test.pmap", "grid:16", "grid:24"})
+	public String map;
+
+	@Param({"sectors", "scalar", "vector", "grid"})
+	public String backend;
+
+	private PSectorWorld world;
+	private PCompiledWorld compiled;
+	private PEdgeGrid grid;
+	private double ox, oy;
+	private double[] dirX, dirY;
+	private PHitList hitList;
+
+	/**
+	 * Loads, decomposes and compiles the map, and builds the fan of rays.
+	 * @throws IOException if the map cannot be loaded
+	 */
+	@Setup
+	public void setup() throws IOException {
+		PPMapData data = PBenchMaps.load(map);
+		world = new PConvexDecomposer(data.world).decompose();
+		switch (backend) {
+			case "sectors" -> {}
+			case "scalar" -> compiled = new PCompiledWorld(world, PEdgeKernel.scalar());
+			case "vector" -> {
+				if (PEdgeKernel.preferred() == PEdgeKernel.scalar()) {
+					throw new IllegalStateException("vector backend needs --add-modules jdk.incubator.vector");
+
+				}
+				compiled = new PCompiledWorld(world, PEdgeKernel.preferred());
+			}
+			case "grid" -> {
+				compiled = new PCompiledWorld(world);
+				grid = new PEdgeGrid(compiled);
+			}
+			default -> throw new IllegalArgumentException("unknown backend: " + backend);
+		}
+		ox = data.position.x();
+		oy = data.position.y();
+		dirX = new double[RAY_COUNT];
+		dirY = new double[RAY_COUNT];
+		double facing = Math.atan2(data.facing.y(), data.facing.x());
+		for (int i = 0; i < RAY_COUNT; i++) {
+			double theta = facing + ((double) i / RAY_COUNT - 0.5) * Math.PI / 2.0;
+			dirX[i] = Math.cos(theta);
+			dirY[i] = Math.sin(theta);
+		}
+		hitList = new PHitList(64);
+	}
+
+	/**
+	 * Finds every hit of each ray with the world using the backend.
+	 * @return the total amount of hits found
+	 */
+	@Benchmark
+	public int allHits() {
+		int total = 0;
+		for (int i = 0; i < RAY_COUNT; i++) {
+			if (compiled == null) {
+				hitList.clear();
+				for (int s = 0; s < world.size(); s++) {
+					world.getSector(s).allHits(ox, oy, dirX[i], dirY[i], 
+							Double.POSITIVE_INFINITY, s, hitList);
+				}
+			} else if (grid != null) {
+				grid.allHits(ox, oy, dirX[i], dirY[i], Double.POSITIVE_INFINITY, hitList);
+			} else {
+				compiled.allHits(ox, oy, dirX[i], dirY[i], Double.POSITIVE_INFINITY, hitList);
+			}
+			total += hitList.size();
+		}
+		return total;
+
+	}
+}
@@ -0,0 +1,123 @@
+package com.ang.peBench;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.ang.peLib.files.pmap.PPMapData;
+import com.ang.peLib.hittables.PEdge;
+import com.ang.peLib.hittables.PHitList;
+import com.ang.peLib.hittables.PHitRecord;
+import com.ang.peLib.hittables.PSector;
+import com.ang.peLib.hittables.PSectorWorld;
+import com.ang.peLib.maths.PInterval;
+import com.ang.peLib.maths.PRay;
+import com.ang.peLib.maths.PVec2;
+import com.ang.peLib.utils.PConvexDecomposer;
+
+/**
+ * Benchmarks ray intersection with edges, sectors and whole worlds.
+ * Each invocation casts a fan of rays from the map's starting position, the
+ * same as the columns of one frame, so results are per frame of rays.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PHittableBenchmark {
+	private final static int RAY_COUNT = 320;
+	private final static double T_MAX = 1e9;
+
+	@Param({"test.pmap", "grid:8", "grid:16"})
+	public String map;
+
+	private PSectorWorld world;
+	private PSector sector;
+	private PEdge edge;
+	private PRay[] rays;
+	private PHitList hitList;
+
+	/**
+	 * Loads and decomposes the map, and builds the fan of rays.
+	 * @throws IOException if the map cannot be loaded
+	 */
+	@Setup
+	public void setup() throws IOException {
+		PPMapData data = PBenchMaps.load(map);
+		world = new PConvexDecomposer(data.world).decompose();
+		sector = world.getSector(0);
+		edge = sector.getWalls()[0];
+		rays = new PRay[RAY_COUNT];
+		double facing = Math.atan2(data.facing.y(), data.facing.x());
+		for (int i = 0; i < RAY_COUNT; i++) {
+			double theta = facing + ((double) i / RAY_COUNT - 0.5) * Math.PI / 2.0;
+			rays[i] = new PRay(data.position, new PVec2(Math.cos(theta), Math.sin(theta)));
+		}
+		hitList = new PHitList(64);
+	}
+
+	/**
+	 * Intersects each ray with a single edge.
+	 * @param bh consumes the result of each hit test
+	 */
+	@Benchmark
+	public void edgeHit(Blackhole bh) {
+		PHitRecord rec = new PHitRecord();
+		for (PRay r : rays) {
+			bh.consume(edge.hit(r, new PInterval(0.0, T_MAX), rec));
+		}
+	}
+
+	/**
+	 * Finds every hit of each ray with a single sector.
+	 * @param bh consumes the hits of each ray
+	 */
+	@Benchmark
+	public void sectorAllHits(Blackhole bh) {
+		for (PRay r : rays) {
+			bh.consume(sector.allHits(r, new PInterval(0.0, T_MAX)));
+		}
+	}
+
+	/**
+	 * Finds every hit of each ray with the world.
+	 * @param bh consumes the hits of each ray
+	 */
+	@Benchmark
+	public void worldAllHits(Blackhole bh) {
+		for (PRay r : rays) {
+			bh.consume(world.allHits(r, new PInterval(0.0, T_MAX)));
+		}
+	}
+
+	/**
+	 * Finds every hit of each ray with the world without allocating.
+	 * @return the total amount of hits found
+	 */
+	@Benchmark
+	public int worldAllHitsInto() {
+		int total = 0;
+		for (PRay r : rays) {
+			PVec2 o = r.getOrigin();
+			PVec2 d = r.getDirection();
+			world.allHits(o.x(), o.y(), d.x(), d.y(), T_MAX, hitList);
+			total += hitList.size();
+		}
+		return total;
+
+	}
+}
@@ -0,0 +1,77 @@
+package com.ang.peBench;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.ang.peLib.exceptions.PParseException;
+import com.ang.peLib.files.json.PJSONParser;
+import com.ang.peLib.files.pmap.PPMapData;
+import com.ang.peLib.files.pmap.PPMapParser;
+
+/**
+ * Benchmarks parsing map and config files.
+ * Files are read into lines during setup, so only parsing is measured.
+ * The config file is the one bundled with peCore.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PParserBenchmark {
+	@Param({"test.pmap", "grid:8", "grid:16"})
+	public String map;
+
+	private String[] mapLines;
+	private String[] configLines;
+	private PPMapParser mapParser;
+	private PJSONParser jsonParser;
+
+	/**
+	 * Reads the map and config files.
+	 * @throws IOException if either file cannot be read
+	 */
+	@Setup
+	public void setup() throws IOException {
+		mapLines = PBenchMaps.lines(map);
+		configLines = PBenchMaps.resource("/config/config.json");
+		mapParser = new PPMapParser(map);
+		jsonParser = new PJSONParser("config.json");
+	}
+
+	/**
+	 * Parses the map.
+	 * @return 				   the parsed map data
+	 * @throws PParseException if the map cannot be parsed
+	 */
+	@Benchmark
+	public PPMapData parseMapData() throws PParseException {
+		return mapParser.parseMapData(mapLines);
+
+	}
+
+	/**
+	 * Parses the config file.
+	 * @return 				   the parsed key value pairs
+	 * @throws PParseException if the config file cannot be parsed
+	 */
+	@Benchmark
+	public Map<String, String> parseJSONData() throws PParseException {
+		return jsonParser.parseJSONData(configLines);
+
+	}
+}
@@ -0,0 +1,80 @@
+package com.ang.peBench;
+
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.ang.peLib.hittables.PHitRecord;
+import com.ang.peLib.utils.PCopyableSorter;
+
+/**
+ * Benchmarks sorting hit records by distance.
+ * The records are shuffled from the same seed for every run. Each invocation
+ * sorts a fresh copy of the shuffled records, the cost of copying them is
+ * measured separately by {@link #copyOnly()}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PSortBenchmark {
+	@Param({"16", "256", "4096"})
+	public int size;
+
+	private PHitRecord[] shuffled;
+	private PHitRecord[] work;
+	private PCopyableSorter<PHitRecord> sorter;
+
+	/**
+	 * Creates the shuffled hit records and the sorter.
+	 */
+	@Setup
+	public void setup() {
+		Random rand = new Random(size);
+		shuffled = new PHitRecord[size];
+		for (int i = 0; i < size; i++) {
+			shuffled[i] = new PHitRecord();
+			shuffled[i].setT(rand.nextDouble() * 100.0);
+		}
+		work = new PHitRecord[size];
+		sorter = new PCopyableSorter<PHitRecord>(
+				Comparator.comparingDouble(PHitRecord::getT));
+	}
+
+	/**
+	 * Copies the shuffled records and quick sorts them.
+	 * @return the sorted records
+	 */
+	@Benchmark
+	public PHitRecord[] quicksort() {
+		System.arraycopy(shuffled, 0, work, 0, size);
+		sorter.quicksort(work, 0, size - 1);
+		return work;
+
+	}
+
+	/**
+	 * Copies the shuffled records without sorting them.
+	 * @return the copied records
+	 */
+	@Benchmark
+	public PHitRecord[] copyOnly() {
+		System.arraycopy(shuffled, 0, work, 0, size);
+		return work;
+
+	}
+}
@@ -1,10 +1,12 @@
 package com.ang.peCore;
 
-import java.util.Comparator;
-
+import com.ang.peLib.metrics.PFrameEvent;
+import com.ang.peLib.metrics.PFrameMetrics;
+import com.ang.peLib.metrics.PFrameStage;
+import com.ang.peLib.exceptions.PResourceException;
 import com.ang.peLib.graphics.*;
 import com.ang.peLib.maths.*;
-import com.ang.peLib.utils.PCopyableSorter;
+import com.ang.peLib.threads.PColumnWorkers;
 import com.ang.peLib.hittables.*;
 import com.ang.peLib.inputs.PFullKeyboardInputListener;
 
@@ -12,19 +14,55 @@ import com.ang.peLib.inputs.PFullKeyboardInputListener;
  * Handles rendering the player's perspective.
  */
 public class PCamera {
+	private final static int SCAN_EDGE_LIMIT = 128; // most culled edges to scan before using the grid
+	private final static double NEAR_CLIP = 1e-9; // distance in front of the camera that edges are clipped at
+	private final static long TEXTURE_BUDGET = 64L * 1024L * 1024L; // bytes of cached textures
+	private final static int OVERDRAW_SCALE = 8; // writes per pixel shown at the top of the heatmap
+	private final static int METRICS_WINDOW = 256; // frames of stage timings to keep
 	private PColour backgroundCol = new PColour(0.3, 0.4, 0.6);
 	private PVec2 position = new PVec2(0.0, 0.0);
 	private PVec2 facing = new PVec2(0.0, 1.0);
 	private int renderMode = 0;
 	private double elevation = 0.0;
+	// transform before the last simulation step, used to interpolate frames
+	private PVec2 prevPosition;
+	private PVec2 prevFacing;
+	private double prevElevation;
 	private PGameParams params;
 	private double viewportHeight;
 	private double viewportWidth;
 	private PVec3 w, u, v;
-	private PVec2 pixel0Position;
 	private PVec2 pixelDeltaU;
+	private double[] rayDirX = new double[0];
+	private double[] rayDirY = new double[0];
+	private PVec2 rayFacing; // facing the ray directions were built for
+	private double rayViewportWidth;
+	private int rayVersion = 0; // changes every time the ray directions are rebuilt
+	// world, position and rays that the hits in the hit buffer were found for
+	private PCompiledWorld hitsWorld;
+	private double hitsX, hitsY;
+	private int hitsRayVersion = -1;
+	private boolean hitsPortals, hitsProjected;
 	private PRenderer renderer;
-	private PCopyableSorter<PHitRecord> recSorter;
+	private PColumnWorkers workers;
+	private PColumnScratch[] scratch;
+	private PCompiledWorld compiledWorld;
+	private PEdgeGrid edgeGrid;
+	private PPortalGraph portalGraph;
+	private int[] startSectors = new int[0];
+	private boolean[] sectorVisible = new boolean[0];
+	private int[] candidateSectors = new int[0];
+	private int candidateCount = 0;
+	private int candidateEdges = 0;
+	private int[] projectedEdges = new int[0];
+	private int[] projectedFrom = new int[0];
+	private int[] projectedTo = new int[0];
+	private int projectedCount = 0;
+	private PHitBuffer hitBuffer;
+	private PFlatMaskStore flatMasks;
+	private PTextureStore textureStore = new PTextureStore(TEXTURE_BUDGET);
+	private PTexture[] sectorTextures = new PTexture[0];
+	private PFrameMetrics metrics = new PFrameMetrics(METRICS_WINDOW);
 	
 	/**
 	 * Constructs a new camera.
@@ -43,6 +81,28 @@ public class PCamera {
 
 	}
 
+	/**
+	 * Returns the store that wall textures are loaded from.
+	 * @return the texture store used by this camera
+	 * @see    com.ang.peLib.graphics.PTextureStore
+	 */
+	public PTextureStore getTextureStore() {
+		return textureStore;
+
+	}
+
+	/**
+	 * Returns the timings of each stage of the frames drawn by this camera.
+	 * The same metrics can be used to time stages outside of the camera, 
+	 * from the thread that draws frames.
+	 * @return the frame metrics of this camera
+	 * @see    com.ang.peLib.metrics.PFrameMetrics
+	 */
+	public PFrameMetrics getMetrics() {
+		return metrics;
+
+	}
+
 	/**
 	 * Sets the position and facing direction of the camera.
 	 * Facing should be a unit vector
@@ -59,7 +119,7 @@ public class PCamera {
 	 * @param positionDelta offset to apply to the camera's position
 	 */
 	public void changePosition(PVec2 positionDelta) {
-		PVec2 xDelta = u.toVec2().neg().mul(positionDelta.x());
+		PVec2 xDelta = new PVec2(-facing.y(), facing.x()).mul(positionDelta.x()); // left
 		PVec2 yDelta = facing.mul(positionDelta.y());
 		position = position.add(xDelta).add(yDelta);
 	}
@@ -92,19 +152,77 @@ public class PCamera {
 	 */
 	public void init(PFullKeyboardInputListener listener) {
 		renderer = new PRenderer(params.imageWidth, params.imageHeight, listener);
+		renderer.enableTripleBuffering();
 		renderer.init();
-		viewportHeight = 2.0 * Math.tan(params.fov / 2.0);
-		viewportWidth = viewportHeight * ((double) params.imageWidth / (double) params.imageHeight);
 		renderer.setScale(params.scale);
-		recSorter = new PCopyableSorter<PHitRecord>(Comparator.comparing(PHitRecord::getT));
+		initRendering();
+	}
+
+	/**
+	 * Initializes the camera to draw into an offscreen image instead of a 
+	 * window.
+	 * No window is created, so this can be used with 
+	 * {@code java.awt.headless=true} and the camera can be drawn from any 
+	 * thread. Each frame drawn stays in the renderer until the next one is 
+	 * drawn, and can be exported through the returned renderer.
+	 * @return the offscreen renderer the camera draws into
+	 * @see    com.ang.peLib.graphics.PHeadlessRenderer
+	 */
+	public PHeadlessRenderer initHeadless() {
+		PHeadlessRenderer headless = new PHeadlessRenderer(params.imageWidth, 
+				params.imageHeight);
+		renderer = headless;
+		initRendering();
+		return headless;
+
+	}
+
+	/**
+	 * Stops the threads used for rendering.
+	 * The camera must be initialized again before drawing another frame. 
+	 * Initializing a camera again also stops its previous threads, so this 
+	 * only needs calling once a camera is no longer used.
+	 * @see #init(PFullKeyboardInputListener)
+	 * @see #initHeadless()
+	 */
+	public void close() {
+		if (workers != null) {
+			workers.shutdown();
+			workers = null;
+		}
+	}
+
+	/**
+	 * Creates the workers and buffers used for rendering once the renderer 
+	 * has been created, stopping the workers of any earlier initialization.
+	 */
+	private void initRendering() {
+		close();
+		workers = new PColumnWorkers(params.renderThreads, params.imageWidth);
+		scratch = new PColumnScratch[workers.getStripCount()];
+		for (int i = 0; i < scratch.length; i++) {
+			scratch[i] = new PColumnScratch(params.imageWidth, params.imageHeight);
+		}
+		hitBuffer = new PHitBuffer(params.imageWidth);
+		flatMasks = new PFlatMaskStore(params.imageWidth, params.imageHeight);
 		update();
 	}
 
 	/**
-	 * Updates camera basis vectors used for rendering.
-	 * This should be called after changing the camera's transform
+	 * Updates camera basis vectors and the ray direction of each column.
+	 * This should be called after changing the camera's transform. Ray 
+	 * directions only depend on the facing and field of view, so they are 
+	 * only rebuilt when either has changed; moving the camera or changing 
+	 * its elevation reuses them as they are.
 	 */
 	public void update() {
+		viewportHeight = 2.0 * Math.tan(params.fov / 2.0);
+		viewportWidth = viewportHeight * ((double) params.imageWidth / (double) params.imageHeight);
+		if ((rayFacing != null) && (rayFacing.x() == facing.x()) 
+				&& (rayFacing.y() == facing.y()) && (rayViewportWidth == viewportWidth)) {
+			return;
+
+		}
 		// camera basis vectors
 		v = new PVec3(0.0, 0.0, 1.0); // up 
 		w = facing.neg().toVec3().unitVector(); // back
@@ -113,14 +231,86 @@ public class PCamera {
 		PVec2 viewportU = (u.mul(viewportWidth)).toVec2();
 		pixelDeltaU = viewportU.div(params.imageWidth);
 		PVec2 offset = w.add(viewportU.div(2.0)).toVec2();
-		pixel0Position = position.sub(offset).add((pixelDeltaU).div(2.0));
+		buildRayDirections(pixelDeltaU.div(2.0).sub(offset));
+		rayFacing = facing;
+		rayViewportWidth = viewportWidth;
+		rayVersion++;
+	}
+
+	/**
+	 * Fills the table of ray directions through the centre of each column.
+	 * @param dir0 the direction of the ray through the first column
+	 */
+	private void buildRayDirections(PVec2 dir0) {
+		if (rayDirX.length != params.imageWidth) {
+			rayDirX = new double[params.imageWidth];
+			rayDirY = new double[params.imageWidth];
+		}
+		double d0x = dir0.x();
+		double d0y = dir0.y();
+		double dux = pixelDeltaU.x();
+		double duy = pixelDeltaU.y();
+		for (int x = 0; x < params.imageWidth; x++) {
+			rayDirX[x] = d0x + dux * x;
+			rayDirY[x] = d0y + duy * x;
+		}
+	}
+
+	/**
+	 * Records the current transform as the state before a simulation step.
+	 * Frames drawn with {@link #draw(PSectorWorld, double)} are interpolated 
+	 * from this transform to the transform left after the step.
+	 */
+	public void beginStep() {
+		prevPosition = position;
+		prevFacing = facing;
+		prevElevation = elevation;
+	}
+
+	/**
+	 * Renders the world from a transform between the last 2 simulation steps.
+	 * The position and elevation are interpolated linearly and the facing 
+	 * is interpolated then normalized while the camera turns. A facing that 
+	 * did not change is used as is, so the hits cached for it are kept. The 
+	 * camera is left at the transform after the last step once the frame is 
+	 * drawn. If no step has been started the current transform is drawn.
+	 * @param  world the world to draw
+	 * @param  alpha how far (0.0 - 1.0) to interpolate from the transform 
+	 * 				 before the last step to the transform after it
+	 * @return 		 the time in ms taken to render the frame
+	 * @see 		 #beginStep()
+	 * @see 		 #draw(PSectorWorld)
+	 */
+	public long draw(PSectorWorld world, double alpha) {
+		if (prevPosition == null) return draw(world);
+
+		PVec2 stepPosition = position;
+		PVec2 stepFacing = facing;
+		double stepElevation = elevation;
+		position = prevPosition.add(stepPosition.sub(prevPosition).mul(alpha));
+		if ((prevFacing.x() == stepFacing.x()) && (prevFacing.y() == stepFacing.y())) {
+			// normalizing would round the facing, so the cached hits are lost
+			facing = stepFacing;
+		} else {
+			PVec2 blended = prevFacing.mul(1.0 - alpha).add(stepFacing.mul(alpha));
+			facing = blended.nearZero() ? stepFacing : blended.unitVector();
+		}
+		elevation = prevElevation + (stepElevation - prevElevation) * alpha;
+		update();
+		long renderMs = draw(world);
+		position = stepPosition;
+		facing = stepFacing;
+		elevation = stepElevation;
+		return renderMs;
+
 	}
 
 	/**
 	 * Cycles the rendering mode of the camera.
+	 * @see #draw(PSectorWorld)
 	 */
 	public void cycleRenderMode() {
-		final int maxRenderMode = 2;
+		final int maxRenderMode = 5;
 		if (++renderMode > maxRenderMode) {
 			renderMode = 0;
 		}
@@ -128,186 +318,789 @@ public class PCamera {
 
 	/**
 	 * Renders the world from the camera's perspective in the current render mode.
-	 * Can render in 3 modes. Default is regular mode, mode 2 draws the floor 
-	 * mask, mode 3 draws the ceiling mask.
+	 * Can render in 6 modes. Default is regular mode, mode 1 draws the floor 
+	 * mask, mode 2 draws the ceiling mask. The other modes are diagnostics: 
+	 * mode 3 draws a heatmap of how many times each pixel was written, mode 4 
+	 * draws the edges tested (top half) and hits found (bottom half) by each 
+	 * column, and mode 5 draws the sectors visited by each column.
+	 * The hits for each column are found by casting rays, or by projecting 
+	 * the visible edges onto the screen if projected walls are enabled and 
+	 * portals are not being traversed, which draws the same frame. Hits 
+	 * are kept between frames and only found again once the camera moves or 
+	 * turns or the world or the shape of its sectors changes, so frames that 
+	 * only change the elevation or the heights of sectors just redraw the 
+	 * columns. Each stage of the frame 
+	 * is timed in the camera's metrics, which are also written over the 
+	 * frame if frame stats are enabled, and the frame is recorded as a 
+	 * flight recorder event.
 	 * @param  world the world to draw 
 	 * @return 		 the time in ms taken to render the frame
 	 * @see  		 com.ang.peLib.hittables.PSectorWorld
 	 */
 	public long draw(PSectorWorld world) {
 		long startTime = System.currentTimeMillis();
+		long frameStart = metrics.mark();
+		PFrameEvent event = new PFrameEvent();
+		event.begin();
 		renderer.fillTile(backgroundCol, params.imageWidth, params.imageHeight, 0, 0);
+		prepareTraversal(world);
+		boolean reused = hitsReusable();
+		if (!reused) {
+			cullSectors();
+			if (params.projectedWalls && !traversingPortals()) {
+				projectEdges();
+				rasterizeFrame();
+			} else {
+				castFrame();
+			}
+		}
+		metrics.lap(PFrameStage.CAST);
+		renderer.countWrites(renderMode == 3);
 		switch (renderMode) {
-			case 0 -> drawWorld(world);
-			case 1 -> drawFloorMask(PColour.BLUE, calculateMasks(world));
-			case 2 -> drawCeilingMask(PColour.GREEN, calculateMasks(world));
+			case 0 -> drawWorld();
+			case 1 -> drawFloorMask(PColour.BLUE, calculateMasks());
+			case 2 -> drawCeilingMask(PColour.GREEN, calculateMasks());
+			case 3 -> {
+				drawWorld();
+				drawOverdraw();
+			}
+			case 4 -> drawColumnCost();
+			case 5 -> drawSectorVisits();
 			default -> { return -1; }
 		}
-		renderer.repaint();
+		if (params.showFrameStats) {
+			metrics.writeOverlay(renderer, 2, 
+					params.imageHeight - (PFrameStage.values().length * 12) - 2);
+		}
+		metrics.mark();
+		renderer.present();
+		metrics.record(PFrameStage.FRAME, metrics.lap(PFrameStage.PRESENT) - frameStart);
+		event.finish(renderMode, compiledWorld.getSectorCount(), candidateCount, 
+				candidateEdges, reused);
 		return System.currentTimeMillis() - startTime;
 
 	}
 
 	/**
-	 * Renders the world from the camera's perspective in normal mode.
-	 * @param world the world to draw 
-	 * @see  		com.ang.peLib.hittables.PSectorWorld
+	 * Prepares the world for ray casting this frame.
+	 * The world is recompiled, its edge grid rebuilt and its wall textures 
+	 * fetched when the world being drawn or its geometry version changes. If 
+	 * portal traversal is enabled the portal graph is rebuilt along with it, 
+	 * then the sectors containing the camera are found to start traversal 
+	 * from. Sectors edited in place without changing their shape, such as a 
+	 * lift changing its floor height, only have their heights and textures 
+	 * copied into the compiled world again. The edges, grid, portal graph 
+	 * and the hits found last frame are kept, as heights are read from the 
+	 * compiled world when drawing.
+	 * @param world the world that will be drawn this frame
+	 * @see   		com.ang.peLib.hittables.PCompiledWorld
+	 * @see   		com.ang.peLib.hittables.PEdgeGrid
+	 * @see   		com.ang.peLib.hittables.PPortalGraph
 	 */
-	private void drawWorld(PSectorWorld world) {
-		PFlatMask[] masks = calculateMasks(world);
-		drawSectors(world, masks);
+	private void prepareTraversal(PSectorWorld world) {
+		if ((compiledWorld == null) || (compiledWorld.getWorld() != world)
+				|| (compiledWorld.getGeometryVersion() != world.getGeometryVersion())) {
+			compiledWorld = new PCompiledWorld(world);
+			edgeGrid = new PEdgeGrid(compiledWorld);
+			portalGraph = null;
+			loadTextures();
+		} else if (compiledWorld.getWorldVersion() != world.getVersion()) {
+			if (compiledWorld.updateAttributes()) loadTextures();
+		}
+		if (!params.portalRendering) return;
+
+		if (portalGraph == null) {
+			portalGraph = new PPortalGraph(compiledWorld);
+		}
+		startSectors = portalGraph.findSectors(position);
 	}
 
 	/**
-	 * Calculates the floor and ceiling masks for each sector in the world.
-	 * @param  world the world to calculate the masks for
-	 * @return 		 an array of flat masks corresponding to each sector in the 
-	 * 				 world storing the floor and ceiling height for each
-	 * @see 		 com.ang.peLib.graphics.PFlatMask
-	 * @see 		com.ang.peLib.hittables.PSectorWorld
+	 * Checks if the hits in the hit buffer can be drawn again this frame.
+	 * Hits only depend on the camera's position, the ray directions and the 
+	 * compiled world, plus the settings choosing how they are found. The 
+	 * values used this frame are kept to compare against next frame.
+	 * @return {@code true} if nothing the hits depend on has changed since 
+	 * 		   they were found, else {@code false}
 	 */
-	private PFlatMask[] calculateMasks(PSectorWorld world) {
-		PFlatMask[] masks = new PFlatMask[world.getSectors().length];
-		for (int i = 0; i < world.getSectors().length; i++) {
-			masks[i] = new PFlatMask(params.imageWidth, params.imageHeight);
+	private boolean hitsReusable() {
+		boolean reusable = (hitsWorld == compiledWorld) 
+				&& (hitsX == position.x()) && (hitsY == position.y())
+				&& (hitsRayVersion == rayVersion)
+				&& (hitsPortals == params.portalRendering)
+				&& (hitsProjected == params.projectedWalls);
+		hitsWorld = compiledWorld;
+		hitsX = position.x();
+		hitsY = position.y();
+		hitsRayVersion = rayVersion;
+		hitsPortals = params.portalRendering;
+		hitsProjected = params.projectedWalls;
+		return reusable;
+
+	}
+
+	/**
+	 * Fetches the wall texture of every sector in the compiled world.
+	 * Sectors whose texture cannot be loaded are drawn in their flat colour.
+	 * @see com.ang.peLib.graphics.PTextureStore
+	 */
+	private void loadTextures() {
+		sectorTextures = new PTexture[compiledWorld.getSectorCount()];
+		for (int s = 0; s < sectorTextures.length; s++) {
+			String name = compiledWorld.getWallTexture(s);
+			if (name == null) continue;
+
+			try {
+				sectorTextures[s] = textureStore.fetch(name);
+			} catch (PResourceException e) {
+				System.err.println("Failed to load wall texture " + name);
+				e.printStackTrace();
+			}
 		}
-		for (int i = 0; i < params.imageWidth; i++) {
-			PRay r = getRay(i);	
-			PHitRecord[] hits = world.allHits(r, PInterval.universe());
-			recSorter.quicksort(hits, 0, hits.length - 1);
-			// recSorter.bubblesort(hits);
-			for (int j = hits.length - 1; j >= 0; j--) {
-				int[] bounds = getColumnBounds(r, hits[j]);
-				masks[hits[j].getSectorIndex()].saveToBoundingMasks(elevation, hits[j], i, bounds);
+	}
+
+	/**
+	 * Finds the sectors that may be visible this frame.
+	 * The bounding box of each sector is tested against the 2 planes through 
+	 * the camera bounding the field of view. Sectors entirely outside of 
+	 * either plane cannot be hit by any column's ray, so they are left out 
+	 * of the candidate list and skipped while casting.
+	 * @see com.ang.peLib.hittables.PCompiledWorld#getMinX(int)
+	 */
+	private void cullSectors() {
+		int count = compiledWorld.getSectorCount();
+		if (sectorVisible.length != count) {
+			sectorVisible = new boolean[count];
+			candidateSectors = new int[count];
+		}
+		double ox = position.x();
+		double oy = position.y();
+		// rays through the outer edges of the first and last columns
+		double lx = rayDirX[0] - pixelDeltaU.x() * 0.5;
+		double ly = rayDirY[0] - pixelDeltaU.y() * 0.5;
+		double rx = lx + pixelDeltaU.x() * params.imageWidth;
+		double ry = ly + pixelDeltaU.y() * params.imageWidth;
+		double side = Math.signum((lx * ry) - (ly * rx));
+		candidateCount = 0;
+		candidateEdges = 0;
+		for (int s = 0; s < count; s++) {
+			double x0 = compiledWorld.getMinX(s) - ox;
+			double y0 = compiledWorld.getMinY(s) - oy;
+			double x1 = compiledWorld.getMaxX(s) - ox;
+			double y1 = compiledWorld.getMaxY(s) - oy;
+			boolean visible = !outsidePlane(lx, ly, side, x0, y0, x1, y1)
+					&& !outsidePlane(rx, ry, -side, x0, y0, x1, y1);
+			sectorVisible[s] = visible;
+			if (visible) {
+				candidateSectors[candidateCount++] = s;
+				candidateEdges += compiledWorld.getSectorEnd(s) - compiledWorld.getSectorStart(s);
 			}
 		}
-		return masks;
+	}
+
+	/**
+	 * Checks if a box lies entirely on the outside of a plane through the camera.
+	 * @param  px 	the x axis of the direction along the plane
+	 * @param  py 	the y axis of the direction along the plane
+	 * @param  side the sign of the cross product for points inside the plane
+	 * @param  x0 	the minimum x coordinate of the box, relative to the camera
+	 * @param  y0 	the minimum y coordinate of the box, relative to the camera
+	 * @param  x1 	the maximum x coordinate of the box, relative to the camera
+	 * @param  y1 	the maximum y coordinate of the box, relative to the camera
+	 * @return 		{@code true} if every corner of the box is outside
+	 */
+	private boolean outsidePlane(double px, double py, double side, double x0, 
+			double y0, double x1, double y1) {
+		return ((px * y0 - py * x0) * side < 0.0) && ((px * y1 - py * x0) * side < 0.0)
+				&& ((px * y0 - py * x1) * side < 0.0) && ((px * y1 - py * x1) * side < 0.0);
 
 	}
 
 	/**
-	 * Draws all of the sectors in the world.
-	 * @param world the world to draw 
-	 * @param masks flatmasks for this frame
-	 * @see 		com.ang.peLib.hittables.PSectorWorld
-	 * @see 	  	com.ang.peLib.graphics.PFlatMask
+	 * Finds all intersections between a ray and the world.
+	 * Walks the portal graph from the camera's sector when portal rendering 
+	 * is enabled, skipping culled sectors. Otherwise (or if the camera is 
+	 * outside of the world) the edges of the candidate sectors are scanned 
+	 * if there are few of them, else the ray walks the edge grid. Portal 
+	 * rendering is off by default: the upper and lower walls of portals are 
+	 * not drawn, so where a ray steps up into a raised sector traversal 
+	 * leaves background below the step, while scanning draws the walls 
+	 * behind it.
+	 * @param ox 	the x coordinate of the ray's origin
+	 * @param oy 	the y coordinate of the ray's origin
+	 * @param dx 	the x axis of the ray's direction
+	 * @param dy 	the y axis of the ray's direction
+	 * @param out 	the list to write every hit along the ray to, unsorted
+	 * @see 		com.ang.peLib.hittables.PPortalGraph
+	 * @see 		com.ang.peLib.hittables.PEdgeGrid
+	 * @see 		com.ang.peLib.hittables.PHitList
 	 */
-	private void drawSectors(PSectorWorld world, PFlatMask[] masks) {
-		for (int x = 0; x < params.imageWidth; x++) {
-			PRay r = getRay(x);
-			PHitRecord[] hits = world.allHits(r, PInterval.universe());
-			recSorter.quicksort(hits, 0, hits.length - 1);
-			// recSorter.bubblesort(hits);
-			drawSlice(r, hits, masks, x);
+	private void castRay(double ox, double oy, double dx, double dy, PHitList out) {
+		if (traversingPortals()) {
+			portalGraph.allHits(ox, oy, dx, dy, Double.POSITIVE_INFINITY, startSectors, 
+					sectorVisible, out);
+			return;
+
 		}
+		if (candidateEdges <= SCAN_EDGE_LIMIT) {
+			compiledWorld.allHits(ox, oy, dx, dy, Double.POSITIVE_INFINITY, 
+					candidateSectors, candidateCount, out);
+			return;
+
+		}
+		edgeGrid.allHits(ox, oy, dx, dy, Double.POSITIVE_INFINITY, out);
 	}
 
 	/**
-	 * Draws a vertical slice of the world at a given x coordinate.
-	 * Renders walls, floors, and ceilings.
-	 * Floors and ceilings are rendered with flat colours currently, the walls 
-	 * are rendered with their distance from the camera visualized.
-	 * @param r 	ray that was cast through the world for this x coordinate 
-	 * @param hits  array of hitrecords from each intersection that the ray had 
-	 * 				with the world
-	 * @param masks flatmasks for this frame
-	 * @param x 	the screen space x coordinate for this slice 
-	 * @see 	  	com.ang.peLib.maths.PRay 
-	 * @see 	  	com.ang.peLib.hittables.PHitRecord 
-	 * @see 	  	com.ang.peLib.graphics.PColour
-	 * @see 	  	com.ang.peLib.graphics.PFlatMask
-	 */
-	private void drawSlice(PRay r, PHitRecord[] hits, PFlatMask[] masks, int x) {
-		PColour fCol = PColour.GREEN;
-		PColour cCol = PColour.BLUE;
-		for (int j = hits.length - 1; j >= 0; j--) {
-			PFlatMask mask = masks[hits[j].getSectorIndex()];
-			if (hits[j].isBackface()) {
-				if (getFloorHeight(hits[j]) < 0.0) { // floor above view
-					renderer.writeColumn(fCol, x, mask.floor[x][0], mask.floor[x][1]);
-				} 
-				if (getFloorHeight(hits[j]) > 0.0) { // floor below view
-					renderer.writeColumn(cCol, x, mask.floor[x][0], mask.floor[x][1]);
+	 * Checks if rays are found by walking the portal graph this frame.
+	 * @return {@code true} if portal rendering is enabled and the camera is 
+	 * 		   inside the world, else {@code false}
+	 */
+	private boolean traversingPortals() {
+		return params.portalRendering && (startSectors.length > 0);
+
+	}
+
+	/**
+	 * Casts a ray for every screen column and stores the sorted hits.
+	 * This is done once per frame, the hit buffer is then shared by the mask 
+	 * pass and the drawing pass. Columns are cast in parallel strips, each 
+	 * using its own scratch state. Rays are read from the table of column 
+	 * ray directions and hits are written into the buffer's reusable hit 
+	 * lists, so no objects are allocated per column.
+	 * @see PHitBuffer
+	 */
+	private void castFrame() {
+		double ox = position.x();
+		double oy = position.y();
+		workers.run((strip, x0, x1) -> {
+			PColumnScratch s = scratch[strip];
+			for (int x = x0; x < x1; x++) {
+				double dx = rayDirX[x];
+				double dy = rayDirY[x];
+				PHitList hits = hitBuffer.getHits(x);
+				castRay(ox, oy, dx, dy, hits);
+				s.recSorter.sort(hits);
+				hitBuffer.setDirection(x, dx, dy);
+			}
+		});
+	}
+
+	/**
+	 * Projects the edges of every candidate sector onto the screen.
+	 * Each edge is clipped to the space in front of the camera and its ends 
+	 * are mapped to the fractional screen column whose ray passes through 
+	 * them. The range of columns between them, widened by a column on each 
+	 * side to absorb rounding, is every column whose ray can hit the edge. 
+	 * Edges with no columns on screen are left out.
+	 * @see #rasterizeFrame()
+	 */
+	private void projectEdges() {
+		if (projectedEdges.length < candidateEdges) {
+			projectedEdges = new int[candidateEdges];
+			projectedFrom = new int[candidateEdges];
+			projectedTo = new int[candidateEdges];
+		}
+		double ox = position.x();
+		double oy = position.y();
+		double d0x = rayDirX[0];
+		double d0y = rayDirY[0];
+		double dux = pixelDeltaU.x();
+		double duy = pixelDeltaU.y();
+		double fx = facing.x();
+		double fy = facing.y();
+		int last = params.imageWidth - 1;
+		projectedCount = 0;
+		for (int c = 0; c < candidateCount; c++) {
+			int s = candidateSectors[c];
+			for (int e = compiledWorld.getSectorStart(s); e < compiledWorld.getSectorEnd(s); e++) {
+				double ax = compiledWorld.getX0(e) - ox;
+				double ay = compiledWorld.getY0(e) - oy;
+				double bx = compiledWorld.getX1(e) - ox;
+				double by = compiledWorld.getY1(e) - oy;
+				double from;
+				double to;
+				if (((ax * by) - (ay * bx)) == 0.0) { // in line with the camera
+					from = 0.0;
+					to = last;
+				} else {
+					double fa = (ax * fx) + (ay * fy);
+					double fb = (bx * fx) + (by * fy);
+					if ((fa <= NEAR_CLIP) && (fb <= NEAR_CLIP)) continue;
+
+					if ((fa > NEAR_CLIP) && (fb > NEAR_CLIP)) {
+						double xa = projectColumn(ax, ay, d0x, d0y, dux, duy);
+						double xb = projectColumn(bx, by, d0x, d0y, dux, duy);
+						from = Math.min(xa, xb);
+						to = Math.max(xa, xb);
+					} else {
+						// the edge crosses the camera plane, so its projection
+						// runs off the side of the screen it heads towards
+						double k = (NEAR_CLIP - fa) / (fb - fa);
+						double cx = ax + (bx - ax) * k;
+						double cy = ay + (by - ay) * k;
+						double xFront = (fa > NEAR_CLIP)
+								? projectColumn(ax, ay, d0x, d0y, dux, duy)
+								: projectColumn(bx, by, d0x, d0y, dux, duy);
+						double xClip = projectColumn(cx, cy, d0x, d0y, dux, duy);
+						from = (xClip < xFront) ? Double.NEGATIVE_INFINITY : xFront;
+						to = (xClip < xFront) ? xFront : Double.POSITIVE_INFINITY;
+					}
 				}
-				if (getCeilingHeight(hits[j]) < 0.0) { // ceiling above view
-					renderer.writeColumn(fCol, x, mask.ceiling[x][0], mask.ceiling[x][1]);
-				} 
-				if (getCeilingHeight(hits[j]) > 0.0) { // ceiling below view
-					renderer.writeColumn(cCol, x, mask.ceiling[x][0], mask.ceiling[x][1]);
+				if (!(to >= -1.0) || !(from <= last + 1.0)) continue;
+
+				projectedEdges[projectedCount] = e;
+				projectedFrom[projectedCount] = (int) Math.max(Math.floor(from) - 1.0, 0.0);
+				projectedTo[projectedCount] = (int) Math.min(Math.ceil(to) + 1.0, last);
+				projectedCount++;
+			}
+		}
+	}
+
+	/**
+	 * Finds the fractional screen column whose ray passes through a point.
+	 * Column {@code x} casts a ray along {@code d0 + du * x}, so the point 
+	 * lies on the ray where the cross product of the two is 0.
+	 * @param  qx  the x coordinate of the point, relative to the camera
+	 * @param  qy  the y coordinate of the point, relative to the camera
+	 * @param  d0x the x axis of the ray direction of column 0
+	 * @param  d0y the y axis of the ray direction of column 0
+	 * @param  dux the x axis of the change in ray direction per column
+	 * @param  duy the y axis of the change in ray direction per column
+	 * @return 	   the column through the point, which must be in front of 
+	 * 			   the camera
+	 */
+	private double projectColumn(double qx, double qy, double d0x, double d0y, 
+			double dux, double duy) {
+		return -((d0x * qy) - (d0y * qx)) / ((dux * qy) - (duy * qx));
+
+	}
+
+	/**
+	 * Fills the hit buffer by rasterizing the projected edges into columns.
+	 * Instead of testing every column's ray against every candidate edge, 
+	 * each projected edge is only tested against the columns it covers on 
+	 * screen, so the cost scales with the visible edges and their size on 
+	 * screen. The depth in each column is found with the same intersection 
+	 * as a cast ray and edges are added in the same order, so every column 
+	 * gets the same sorted hits as {@link #castFrame()} scanning the 
+	 * candidate sectors. Projection does not follow portals, so while the 
+	 * portal graph is being walked frames are cast instead. Columns are 
+	 * filled in parallel strips.
+	 * @see #projectEdges()
+	 * @see PHitBuffer
+	 */
+	private void rasterizeFrame() {
+		double ox = position.x();
+		double oy = position.y();
+		workers.run((strip, x0, x1) -> {
+			PColumnScratch s = scratch[strip];
+			for (int x = x0; x < x1; x++) {
+				hitBuffer.getHits(x).clear();
+			}
+			for (int i = 0; i < projectedCount; i++) {
+				int from = Math.max(projectedFrom[i], x0);
+				int to = Math.min(projectedTo[i], x1 - 1);
+				int e = projectedEdges[i];
+				for (int x = from; x <= to; x++) {
+					double dx = rayDirX[x];
+					double dy = rayDirY[x];
+					PHitList hits = hitBuffer.getHits(x);
+					double t = compiledWorld.intersect(e, ox, oy, dx, dy);
+					hits.countEdgesTested(1);
+					if (t < Double.POSITIVE_INFINITY) {
+						compiledWorld.recordHit(hits.add(), e, t, dx, dy);
+					}
+				}
+			}
+			for (int x = x0; x < x1; x++) {
+				s.recSorter.sort(hitBuffer.getHits(x));
+				hitBuffer.setDirection(x, rayDirX[x], rayDirY[x]);
+			}
+		});
+	}
+
+	/**
+	 * Renders the world from the camera's perspective in normal mode.
+	 */
+	private void drawWorld() {
+		drawSectors(calculateMasks());
+	}
+
+	/**
+	 * Calculates the floor and ceiling masks for each sector hit this frame.
+	 * Reads the hits stored in the hit buffer for this frame. Masks are only
+	 * given to the sectors that were hit, then each strip of columns only
+	 * writes its own columns of the masks, so no locking is needed.
+	 * @return the flat mask store holding the floor and ceiling bounds of
+	 * 		   every sector hit this frame
+	 * @see    com.ang.peLib.graphics.PFlatMaskStore
+	 */
+	private PFlatMaskStore calculateMasks() {
+		flatMasks.begin(compiledWorld.getSectorCount());
+		for (int i = 0; i < params.imageWidth; i++) {
+			PHitList hits = hitBuffer.getHits(i);
+			for (int j = 0; j < hits.size(); j++) {
+				flatMasks.assign(hits.get(j).getSectorIndex());
+			}
+		}
+		workers.run((strip, x0, x1) -> {
+			int[] bounds = scratch[strip].bounds;
+			for (int i = x0; i < x1; i++) {
+				PHitList hits = hitBuffer.getHits(i);
+				double dirLength = hitBuffer.getDirLength(i);
+				for (int j = hits.size() - 1; j >= 0; j--) {
+					PHitRecord rec = hits.get(j);
+					getColumnBounds(rec.getT() * dirLength, rec, bounds);
+					flatMasks.save(rec.getSectorIndex(), getFloorHeight(rec), 
+							getCeilingHeight(rec), rec.isBackface(), i, bounds);
+				}
+			}
+		});
+		metrics.lap(PFrameStage.MASK);
+		return flatMasks;
+
+	}
+
+	/**
+	 * Draws all of the sectors in the world from the hits stored in the hit
+	 * buffer for this frame.
+	 * Walls are drawn column by column while the visible parts of floors and
+	 * ceilings are gathered into visplanes, which are then drawn as spans.
+	 * Columns are drawn back to front, or front to back with clipping when 
+	 * front to back rendering is enabled in the game params.
+	 * @param masks flatmasks for this frame
+	 * @see 	  	com.ang.peLib.graphics.PFlatMaskStore
+	 * @see 	  	com.ang.peLib.graphics.PVisplanes
+	 * @see 	  	PHitBuffer
+	 */
+	private void drawSectors(PFlatMaskStore masks) {
+		int sectorCount = compiledWorld.getSectorCount();
+		workers.run((strip, x0, x1) -> {
+			PColumnScratch s = scratch[strip];
+			s.planes.begin(sectorCount);
+			for (int x = x0; x < x1; x++) {
+				if (params.frontToBack) {
+					drawSliceFrontToBack(hitBuffer.getDirLength(x), hitBuffer.getHits(x), 
+							masks, x, s);
+				} else {
+					drawSlice(hitBuffer.getDirLength(x), hitBuffer.getHits(x), masks, x, s);
 				}
-			} 
-			if (!hits[j].isPortal()) {
-				int[] bounds = getColumnBounds(r, hits[j]);
-				PColour columnColour = rayColour(r, hits[j]);
-				if (columnColour != null) {
-					renderer.writeColumn(columnColour, x, bounds[0], bounds[1]);
+			}
+		});
+		metrics.lap(PFrameStage.WALL);
+		drawFlats();
+		metrics.lap(PFrameStage.FLAT);
+	}
+
+	/**
+	 * Draws the floors and ceilings gathered into each strip's visplanes.
+	 * The visible parts of flats never overlap and each strip's visplanes
+	 * only cover that strip's columns, so strips are drawn in parallel.
+	 * @see com.ang.peLib.graphics.PVisplanes#drawSpans(PRenderer)
+	 */
+	private void drawFlats() {
+		workers.run((strip, x0, x1) -> scratch[strip].planes.drawSpans(renderer));
+	}
+
+	/**
+	 * Draws the walls of a vertical slice of the world at a given x coordinate
+	 * and gathers its floors and ceilings into visplanes.
+	 * Walls are drawn back to front with their distance from the camera
+	 * visualized. The same hits are then walked front to back so that only
+	 * the parts of each floor and ceiling left visible by everything nearer
+	 * are gathered, matching what drawing them in between the walls would
+	 * show. Floors and ceilings are rendered with flat colours currently.
+	 * @param dirLength length of the direction of the ray cast for this slice
+	 * @param hits  	 sorted hits from each intersection that the ray had
+	 * 					 with the world
+	 * @param masks 	 flatmasks for this frame
+	 * @param x 		 the screen space x coordinate for this slice
+	 * @param s 		 scratch state of the strip drawing this slice
+	 * @see 	  		 com.ang.peLib.hittables.PHitList
+	 * @see 	  		 com.ang.peLib.graphics.PColour
+	 * @see 	  		 com.ang.peLib.graphics.PFlatMaskStore
+	 * @see 	  		 com.ang.peLib.graphics.PVisplanes
+	 */
+	private void drawSlice(double dirLength, PHitList hits, PFlatMaskStore masks,
+			int x, PColumnScratch s) {
+		int[] bounds = s.bounds;
+		for (int j = hits.size() - 1; j >= 0; j--) {
+			PHitRecord rec = hits.get(j);
+			if (!rec.isPortal()) {
+				getColumnBounds(rec.getT() * dirLength, rec, bounds);
+				drawWall(rec, rec.getT() * dirLength, x, bounds[1], bounds[0]);
+			}
+		}
+		PVisplanes planes = s.planes;
+		planes.beginColumn(x);
+		for (int j = 0; j < hits.size(); j++) {
+			PHitRecord rec = hits.get(j);
+			if (!rec.isPortal()) {
+				getColumnBounds(rec.getT() * dirLength, rec, bounds);
+				planes.cover(bounds[1], bounds[0]);
+			}
+			if (rec.isBackface()) {
+				int sector = rec.getSectorIndex();
+				addFlat(planes, sector, true, getCeilingHeight(rec),
+						masks.get(sector, x, PFlatMaskStore.CEILING_HI),
+						masks.get(sector, x, PFlatMaskStore.CEILING_LO));
+				addFlat(planes, sector, false, getFloorHeight(rec),
+						masks.get(sector, x, PFlatMaskStore.FLOOR_HI),
+						masks.get(sector, x, PFlatMaskStore.FLOOR_LO));
+			}
+		}
+	}
+
+	/**
+	 * Draws a vertical slice of the world front to back, clipping each wall 
+	 * to the rows of the column that nothing nearer has covered.
+	 * The visplanes of the strip keep the uncovered rows of the column, so 
+	 * each wall is only drawn into rows that are still open and every pixel 
+	 * is written at most once. Once a wall closes the column nothing behind 
+	 * it can be seen and the rest of the hits are skipped. Floors and 
+	 * ceilings are gathered the same way as in 
+	 * {@link #drawSlice(double, PHitList, PFlatMaskStore, int, PColumnScratch)}, 
+	 * so the image drawn is the same.
+	 * @param dirLength length of the direction of the ray cast for this slice
+	 * @param hits  	 sorted hits from each intersection that the ray had
+	 * 					 with the world
+	 * @param masks 	 flatmasks for this frame
+	 * @param x 		 the screen space x coordinate for this slice
+	 * @param s 		 scratch state of the strip drawing this slice
+	 * @see 	  		 com.ang.peLib.graphics.PVisplanes#isColumnClosed()
+	 */
+	private void drawSliceFrontToBack(double dirLength, PHitList hits, PFlatMaskStore masks,
+			int x, PColumnScratch s) {
+		int[] bounds = s.bounds;
+		PVisplanes planes = s.planes;
+		planes.beginColumn(x);
+		for (int j = 0; (j < hits.size()) && !planes.isColumnClosed(); j++) {
+			PHitRecord rec = hits.get(j);
+			if (!rec.isPortal()) {
+				double distance = rec.getT() * dirLength;
+				getColumnBounds(distance, rec, bounds);
+				int top = bounds[1];
+				int bottom = bounds[0];
+				// draw each run of open rows the wall spans
+				int y = planes.nextOpenRow(top);
+				while (y <= bottom) {
+					int end = Math.min(planes.nextCoveredRow(y) - 1, bottom);
+					drawWall(rec, distance, x, y, end);
+					y = planes.nextOpenRow(end + 1);
 				}
+				planes.cover(top, bottom);
+			}
+			if (rec.isBackface()) {
+				int sector = rec.getSectorIndex();
+				addFlat(planes, sector, true, getCeilingHeight(rec),
+						masks.get(sector, x, PFlatMaskStore.CEILING_HI),
+						masks.get(sector, x, PFlatMaskStore.CEILING_LO));
+				addFlat(planes, sector, false, getFloorHeight(rec),
+						masks.get(sector, x, PFlatMaskStore.FLOOR_HI),
+						masks.get(sector, x, PFlatMaskStore.FLOOR_LO));
 			}
 		}
 	}
 
+	/**
+	 * Draws rows of the column of a wall hit by the ray of a screen column.
+	 * Walls of textured sectors are sampled from the mip level matching their 
+	 * on screen size, with the texture repeating once per world unit along 
+	 * and up the wall. Other walls are drawn in their flat colour. Both are 
+	 * shaded by distance.
+	 * @param rec 	   the hitrecord of the wall
+	 * @param distance the distance from the camera to the intersection
+	 * @param x 	   the screen space x coordinate of the column
+	 * @param top 	   the first row (from the top of the screen) to draw
+	 * @param bottom   the last row (from the top of the screen) to draw
+	 * @see 		   com.ang.peLib.graphics.PTexture
+	 */
+	private void drawWall(PHitRecord rec, double distance, int x, int top, int bottom) {
+		int colour = rayColour(distance, rec);
+		int edge = rec.getEdgeIndex();
+		PTexture texture = (edge < 0) ? null : sectorTextures[rec.getSectorIndex()];
+		if (texture == null) {
+			renderer.writeColumn(colour, x, bottom, top);
+			return;
+
+		}
+		double scale = params.imageHeight / distance; // pixels per world unit
+		int level = texture.selectLevel(texture.getHeight(0) / scale);
+		int texWidth = texture.getWidth(level);
+		int texHeight = texture.getHeight(level);
+		// distance along the wall from its first corner
+		double t = rec.getT();
+		double ex = compiledWorld.getEx(edge);
+		double ey = compiledWorld.getEy(edge);
+		double hx = position.x() + hitBuffer.getDirX(x) * t - compiledWorld.getX0(edge);
+		double hy = position.y() + hitBuffer.getDirY(x) * t - compiledWorld.getY0(edge);
+		double along = ((hx * ex) + (hy * ey)) / Math.sqrt((ex * ex) + (ey * ey));
+		int column = (int) ((along - Math.floor(along)) * texWidth);
+		column = Math.min(column, texWidth - 1);
+		// texel row at the first drawn row, measured down from the ceiling
+		double ceilingRow = params.imageHeight - (params.imageHeight / 2) 
+				- (scale * getCeilingHeight(rec));
+		double vStep = texHeight / scale;
+		double v = Math.max((top + 0.5 - ceilingRow) * vStep, 0.0);
+		renderer.writeTexturedColumn(texture.getTexels(level), column * texHeight, 
+				texHeight, colour, x, bottom, top, v, vStep);
+	}
+
+	/**
+	 * Adds a floor or ceiling to the current column of a strip's visplanes.
+	 * Flats below the view are drawn blue, flats above it green, and flats
+	 * level with the view are not drawn.
+	 * @param planes  the visplanes to add the flat to
+	 * @param sector  the index of the sector the flat belongs to
+	 * @param ceiling {@code true} for the ceiling, {@code false} for the floor
+	 * @param height  the height of the flat relative to the camera
+	 * @param top 	  the first row (from the top of the screen) of the flat
+	 * @param bottom  the last row (from the top of the screen) of the flat
+	 * @see 		  com.ang.peLib.graphics.PVisplanes
+	 */
+	private void addFlat(PVisplanes planes, int sector, boolean ceiling, double height,
+			int top, int bottom) {
+		if (height < 0.0) { // flat above view
+			planes.addFlat(sector, ceiling, PColour.GREEN.toRGB(), top, bottom);
+		} else if (height > 0.0) { // flat below view
+			planes.addFlat(sector, ceiling, PColour.BLUE.toRGB(), top, bottom);
+		}
+	}
+
 	/**
 	 * Draws all floor mask, used in render mode 2.
-	 * @param colour the colour to render the mask in 
+	 * @param colour the colour to render the mask in
 	 * @param masks  the flat masks to draw
 	 * @see 	  	 com.ang.peLib.graphics.PColour
-	 * @see 	  	 com.ang.peLib.graphics.PFlatMask
+	 * @see 	  	 com.ang.peLib.graphics.PFlatMaskStore
 	 */
-	private void drawFloorMask(PColour colour, PFlatMask[] masks) {
-		for (int i = 0; i < params.imageWidth; i++) {
-			for (PFlatMask mask : masks) {
-				renderer.writePixel(colour, i, mask.floor[i][0]);
-				renderer.writePixel(colour, i, mask.floor[i][1]);
-			}
-		}
+	private void drawFloorMask(PColour colour, PFlatMaskStore masks) {
+		drawMaskBounds(colour, masks, PFlatMaskStore.FLOOR_LO, PFlatMaskStore.FLOOR_HI);
 	}
 
 	/**
 	 * Draws all ceiling mask, used in render mode 3.
-	 * @param colour the colour to render the mask in 
+	 * @param colour the colour to render the mask in
 	 * @param masks  the flat masks to draw
 	 * @see 	  	 com.ang.peLib.graphics.PColour
-	 * @see 	  	 com.ang.peLib.graphics.PFlatMask
+	 * @see 	  	 com.ang.peLib.graphics.PFlatMaskStore
 	 */
-	private void drawCeilingMask(PColour colour, PFlatMask[] masks) {
-		for (int i = 0; i < params.imageWidth; i++) {
-			for (PFlatMask mask : masks) {
-				renderer.writePixel(colour, i, mask.ceiling[i][0]);
-				renderer.writePixel(colour, i, mask.ceiling[i][1]);
+	private void drawCeilingMask(PColour colour, PFlatMaskStore masks) {
+		drawMaskBounds(colour, masks, PFlatMaskStore.CEILING_LO, PFlatMaskStore.CEILING_HI);
+	}
+
+	/**
+	 * Draws a pair of bounds from every mask in the store as single pixels.
+	 * @param colour the colour to render the bounds in
+	 * @param masks  the flat masks to draw
+	 * @param lo 	 the lower bound to draw
+	 * @param hi 	 the upper bound to draw
+	 * @see 	  	 com.ang.peLib.graphics.PFlatMaskStore
+	 */
+	private void drawMaskBounds(PColour colour, PFlatMaskStore masks, int lo, int hi) {
+		workers.run((strip, x0, x1) -> {
+			for (int i = x0; i < x1; i++) {
+				for (int s = 0; s < masks.getSectorCount(); s++) {
+					int sector = masks.getSector(s);
+					renderer.writePixel(colour, i, masks.get(sector, i, lo));
+					renderer.writePixel(colour, i, masks.get(sector, i, hi));
+				}
+			}
+		});
+	}
+
+	/**
+	 * Replaces the frame with a heatmap of how many times each pixel was 
+	 * written while drawing it, used in render mode 3.
+	 * Pixels only covered by the background are black, pixels written 
+	 * {@link #OVERDRAW_SCALE} or more times are red.
+	 * @see com.ang.peLib.graphics.PRenderer#getWriteCounts()
+	 * @see com.ang.peLib.graphics.PColour#heat(double)
+	 */
+	private void drawOverdraw() {
+		int[] counts = renderer.getWriteCounts();
+		renderer.countWrites(false);
+		int[] pixels = renderer.getPixels();
+		int width = params.imageWidth;
+		workers.run((strip, x0, x1) -> {
+			for (int y = 0; y < params.imageHeight; y++) {
+				for (int i = y * width + x0, end = y * width + x1; i < end; i++) {
+					pixels[i] = PColour.heat((double) counts[i] / OVERDRAW_SCALE);
+				}
 			}
+		});
+	}
+
+	/**
+	 * Draws a heatmap of the work done to find each column's hits, used in 
+	 * render mode 4.
+	 * The top half of each column shows the edges tested against its ray 
+	 * and the bottom half shows the hits found, each scaled to the most of 
+	 * any column this frame. The maximums are written in the corners.
+	 * @see com.ang.peLib.hittables.PHitList#getEdgesTested()
+	 */
+	private void drawColumnCost() {
+		int maxTested = 1;
+		int maxHits = 1;
+		for (int x = 0; x < params.imageWidth; x++) {
+			maxTested = Math.max(maxTested, hitBuffer.getHits(x).getEdgesTested());
+			maxHits = Math.max(maxHits, hitBuffer.getHits(x).size());
 		}
+		int mid = params.imageHeight / 2;
+		for (int x = 0; x < params.imageWidth; x++) {
+			PHitList hits = hitBuffer.getHits(x);
+			renderer.writeColumn(PColour.heat((double) hits.getEdgesTested() / maxTested), 
+					x, mid - 1, 0);
+			renderer.writeColumn(PColour.heat((double) hits.size() / maxHits), 
+					x, params.imageHeight - 1, mid);
+		}
+		renderer.writeText("edges tested, max " + maxTested, 2, 12);
+		renderer.writeText("hits, max " + maxHits, 2, mid + 12);
+	}
+
+	/**
+	 * Draws a heatmap of the sectors visited by each column's ray, used in 
+	 * render mode 5.
+	 * Counts are scaled to the most of any column this frame, which is 
+	 * written in the corner. Rays that walk the edge grid visit no sectors.
+	 * @see com.ang.peLib.hittables.PHitList#getSectorsVisited()
+	 */
+	private void drawSectorVisits() {
+		int maxVisits = 1;
+		for (int x = 0; x < params.imageWidth; x++) {
+			maxVisits = Math.max(maxVisits, hitBuffer.getHits(x).getSectorsVisited());
+		}
+		for (int x = 0; x < params.imageWidth; x++) {
+			int visits = hitBuffer.getHits(x).getSectorsVisited();
+			renderer.writeColumn(PColour.heat((double) visits / maxVisits), 
+					x, params.imageHeight - 1, 0);
+		}
+		renderer.writeText("sectors visited, max " + maxVisits, 2, 12);
 	}
 
 	/**
 	 * Determines the colour of a ray that was cast through the world.
 	 * This is currently only used when drawing walls to display the 
 	 * depth from the camera.
-	 * @param  r   the ray to get the colour for 
-	 * @param  rec the hitrecord recording the intersection that this ray had 
-	 * 			   with the world
-	 * @return 	   a colour for the ray
-	 * @see 	   com.ang.peLib.hittables.PHitRecord 
-	 * @see 	   com.ang.peLib.maths.PRay 
-	 * @see 	   com.ang.peLib.graphics.PColour
+	 * @param  distance the distance from the camera to the intersection
+	 * @param  rec 		the hitrecord recording the intersection that the ray 
+	 * 					had with the world
+	 * @return 	   		a gamma corrected colour for the ray as a packed int
+	 * @see 	   		com.ang.peLib.hittables.PHitRecord 
+	 * @see 	   		com.ang.peLib.graphics.PColour#shade(double)
 	 */
-	private PColour rayColour(PRay r, PHitRecord rec) {
-		PColour colour = rec.getColour();	
-		colour = colour.mul(getDepth(r, rec));
-		return colour;
+	private int rayColour(double distance, PHitRecord rec) {
+		return rec.getColour().shade(getDepth(distance));
 
 	}
 
 	/**
 	 * Calculates a scaled depth value for a ray's intersection with the world.
-	 * @param  r   the ray to get the depth for
-	 * @param  rec the hitrecord recording the intersection that this ray had 
-	 * 			   with the world
-	 * @return 	   the depth value for this ray
-	 * @see 	   com.ang.peLib.maths.PRay
-	 * @see 	   com.ang.peLib.hittables.PHitRecord
-	 */
-	private double getDepth(PRay r, PHitRecord rec) {
-		double distance = (r.at(rec.getT()).sub(r.getOrigin())).length();
+	 * @param  distance the distance from the camera to the intersection
+	 * @return 	   		the depth value for this ray
+	 */
+	private double getDepth(double distance) {
 		double value = 1.0 - (distance / 20.0);
 		return value;
 
@@ -315,23 +1108,21 @@ public class PCamera {
 	/**
 	 * Calculates the top and bottom screen space coordinates for a wall based 
 	 * on its distance to the camera.
-	 * @param  r   the ray to get the bounds for
-	 * @param  rec the hitrecord recording the intersection that this ray had 
-	 * 			   with the world
-	 * @return 	   a pair of values for the y pixel coordinate of the bottom of 
-	 * 			   the wall, and the y pixel coordinate of the top of the wall
-	 * @see 	   com.ang.peLib.maths.PRay
-	 * @see 	   com.ang.peLib.hittables.PHitRecord
-	 */
-	private int[] getColumnBounds(PRay r, PHitRecord rec) {
-		double distance = (r.at(rec.getT()).sub(r.getOrigin())).length();
+	 * @param distance the distance from the camera to the intersection
+	 * @param rec 	   the hitrecord recording the intersection that the ray 
+	 * 				   had with the world
+	 * @param out 	   array to write the y pixel coordinate of the bottom of 
+	 * 				   the wall, and the y pixel coordinate of the top of the 
+	 * 				   wall to
+	 * @see 		   com.ang.peLib.hittables.PHitRecord
+	 */
+	private void getColumnBounds(double distance, PHitRecord rec, int[] out) {
 		int botCoord = (int) Math.round((params.imageHeight / distance) * getFloorHeight(rec));
 		int topCoord = (int) Math.round((params.imageHeight / distance) * getCeilingHeight(rec));
 		int bottom = (params.imageHeight / 2) + botCoord;
 		int top = (params.imageHeight / 2) + topCoord;
-		return new int[]{clamp(params.imageHeight - bottom, 0, params.imageHeight - 1), 
-				clamp(params.imageHeight - top, 0, params.imageHeight - 1)};
-
+		out[0] = clamp(params.imageHeight - bottom, 0, params.imageHeight - 1);
+		out[1] = clamp(params.imageHeight - top, 0, params.imageHeight - 1);
 	}
 
 	/**
@@ -348,41 +1139,29 @@ public class PCamera {
 
 	}
 
-	/**
-	 * Returns a ray with perspective projection for a given x screen space coordinate.
-	 * @param  x the x pixel coordinate for which to get the ray for
-	 * @return 	 a ray in the direction of the x pixel coordinate specified with 
-	 * 			 perspective projection
-	 * @see 	 com.ang.peLib.maths.PRay
-	 * @see 	 com.ang.peLib.maths.PVec2
-	 */
-	private PRay getRay(int x) {
-		PVec2 offsetX = pixelDeltaU.mul(x);
-		PVec2 pixelPos = pixel0Position.add(offsetX);
-		PVec2 rayDir = pixelPos.sub(position);
-		return new PRay(position, rayDir);
-
-	}
-
 	/**
 	 * Returns the floor height of a hitrecord based on current elevation.
+	 * The height is read from the compiled world rather than the record, so 
+	 * hits kept from an earlier frame follow sectors whose height changed.
 	 * @param  hitRec the hitrecord to get the floor height for 
 	 * @return 		  relative floor height based on camera elevation
 	 * @see 		  com.ang.peLib.hittables.PHitRecord
 	 */
 	private double getFloorHeight(PHitRecord hitRec) {
-		return hitRec.getFloorHeight() - elevation;
+		return compiledWorld.getFloorHeight(hitRec.getSectorIndex()) - elevation;
 
 	}
 
 	/**
 	 * Returns the ceiling height of a hitrecord based on current elevation.
+	 * The height is read from the compiled world rather than the record, so 
+	 * hits kept from an earlier frame follow sectors whose height changed.
 	 * @param  hitRec the hitrecord to get the ceiling height for 
 	 * @return 		  relative ceiling height based on camera elevation
 	 * @see 		  com.ang.peLib.hittables.PHitRecord
 	 */
 	private double getCeilingHeight(PHitRecord hitRec) {
-		return hitRec.getCeilingHeight() - elevation;
+		return compiledWorld.getCeilingHeight(hitRec.getSectorIndex()) - elevation;
 
 	}
 }
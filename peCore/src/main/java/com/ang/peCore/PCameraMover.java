@@ -8,9 +8,9 @@ import java.awt.event.KeyEvent;
  * Provides an interface for controlling the camera's position and facing.
  */
 public class PCameraMover {
-	private final double MOVEMENT_STEP = 0.18;
-	private final double TURN_STEP = Math.PI / 45.0;
-	private final double ELEVATION_STEP = 0.18;
+	private final double MOVEMENT_SPEED = 10.8; // units per second
+	private final double TURN_SPEED = Math.PI * 4.0 / 3.0; // radians per second
+	private final double ELEVATION_SPEED = 10.8; // units per second
 	private PCamera camera;
 
 	/**
@@ -25,13 +25,16 @@ public class PCameraMover {
 	/**
 	 * Updates the camera's position and rotation based on the current inputs.
 	 * Input array is given such that the keycode of each key is an index into 
-	 * the array and the boolean value represents if it is held or not.
+	 * the array and the boolean value represents if it is held or not. The 
+	 * camera moves at a constant speed, so the distance moved is scaled by 
+	 * the time passed.
 	 * @param inputs the currently held keys
+	 * @param dt 	 the time in seconds since the last update
 	 */
-	public void update(boolean[] inputs) {
-		camera.changePosition(getMovementInput(inputs));
-		camera.changeFacing(getTurnInput(inputs));
-		camera.changeElevation(getElevationInput(inputs));
+	public void update(boolean[] inputs, double dt) {
+		camera.changePosition(getMovementInput(inputs).mul(dt));
+		camera.changeFacing(getTurnInput(inputs) * dt);
+		camera.changeElevation(getElevationInput(inputs) * dt);
 	}
 
 	/**
@@ -39,12 +42,12 @@ public class PCameraMover {
 	 * Input array is given such that the keycode of each key is an index into 
 	 * the array and the boolean value represents if it is held or not.
 	 * @param  inputs the currently held keys
-	 * @return 		  angle in radians to turn
+	 * @return 		  angular velocity in radians per second to turn at
 	 */
 	private double getTurnInput(boolean[] inputs) {
 		double theta = 0.0;
-		if (inputs[KeyEvent.VK_LEFT]) theta += TURN_STEP;
-		if (inputs[KeyEvent.VK_RIGHT]) theta -= TURN_STEP;
+		if (inputs[KeyEvent.VK_LEFT]) theta += TURN_SPEED;
+		if (inputs[KeyEvent.VK_RIGHT]) theta -= TURN_SPEED;
 		return theta;
 
 	}
@@ -54,15 +57,15 @@ public class PCameraMover {
 	 * Input array is given such that the keycode of each key is an index into 
 	 * the array and the boolean value represents if it is held or not.
 	 * @param  inputs the currently held keys
-	 * @return 		  vector to move the camera in
+	 * @return 		  velocity to move the camera at, in units per second
 	 * @see 		  com.ang.peLib.maths.PVec2
 	 */
 	private PVec2 getMovementInput(boolean[] inputs) {
 		PVec2 out = new PVec2(0.0, 0.0);
-		if (inputs[KeyEvent.VK_W]) out = out.add(new PVec2(0.0, MOVEMENT_STEP));
-		if (inputs[KeyEvent.VK_A]) out = out.add(new PVec2(MOVEMENT_STEP, 0.0));
-		if (inputs[KeyEvent.VK_S]) out = out.add(new PVec2(0.0, -MOVEMENT_STEP));
-		if (inputs[KeyEvent.VK_D]) out = out.add(new PVec2(-MOVEMENT_STEP, 0.0));
+		if (inputs[KeyEvent.VK_W]) out = out.add(new PVec2(0.0, MOVEMENT_SPEED));
+		if (inputs[KeyEvent.VK_A]) out = out.add(new PVec2(MOVEMENT_SPEED, 0.0));
+		if (inputs[KeyEvent.VK_S]) out = out.add(new PVec2(0.0, -MOVEMENT_SPEED));
+		if (inputs[KeyEvent.VK_D]) out = out.add(new PVec2(-MOVEMENT_SPEED, 0.0));
 		return out;
 
 	}
@@ -72,12 +75,12 @@ public class PCameraMover {
 	 * Input array is given such that the keycode of each key is an index into 
 	 * the array and the boolean value represents if it is held or not.
 	 * @param  inputs the currently held keys
-	 * @return 		  units to move the camera up or down
+	 * @return 		  units per second to move the camera up or down at
 	 */
 	private double getElevationInput(boolean[] inputs) {
 		double delta = 0.0;
-		if (inputs[KeyEvent.VK_UP]) delta += ELEVATION_STEP;
-		if (inputs[KeyEvent.VK_DOWN]) delta -= ELEVATION_STEP;
+		if (inputs[KeyEvent.VK_UP]) delta += ELEVATION_SPEED;
+		if (inputs[KeyEvent.VK_DOWN]) delta -= ELEVATION_SPEED;
 		return delta;
 
 	}
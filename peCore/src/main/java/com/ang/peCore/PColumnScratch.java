@@ -0,0 +1,25 @@
+package com.ang.peCore;
+
+import com.ang.peLib.graphics.PVisplanes;
+import com.ang.peLib.hittables.PHitSorter;
+
+/**
+ * Scratch state owned by a single strip of screen columns while rendering.
+ * Every strip has its own instance so that strips can be rendered in
+ * parallel without sharing any mutable state.
+ * @see com.ang.peLib.threads.PColumnWorkers
+ */
+public class PColumnScratch {
+	public final PHitSorter recSorter = new PHitSorter();
+	public final int[] bounds = new int[2];
+	public final PVisplanes planes;
+
+	/**
+	 * Constructs new scratch state for a screen size.
+	 * @param width  the width of the screen in pixels
+	 * @param height the height of the screen in pixels
+	 */
+	public PColumnScratch(int width, int height) {
+		planes = new PVisplanes(width, height);
+	}
+}
@@ -1,9 +1,12 @@
 package com.ang.peCore;
 
 import java.awt.event.KeyEvent;
+import java.io.IOException;
+import java.nio.file.Path;
 
 import com.ang.peLib.utils.PConvexDecomposer;
 import com.ang.peLib.threads.*;
+import com.ang.peLib.metrics.*;
 import com.ang.peLib.exceptions.*;
 import com.ang.peLib.hittables.*;
 import com.ang.peLib.inputs.*;
@@ -12,11 +15,13 @@ import com.ang.peLib.files.pmap.*;
 /**
  * Main class for the core game.
  */
-public class PGame implements PThreadInterface, PMovementInputInterface, PFullKeyboardInputInterface {
+public class PGame implements PFixedStepInterface, PMovementInputInterface, PFullKeyboardInputInterface {
+	private final static int MAX_CATCH_UP_STEPS = 5; // most steps to simulate between frames
+	private final static String METRICS_FILE = "frameMetrics"; // file name of metrics dumps, without extension
+	private long nextMetricsDump = 0;
 	private long debounceTimer = 0;
 	private boolean[] keyInputs = new boolean[256];
 	private PFullKeyboardInputListener listener = new PFullKeyboardInputListener(this);
-	private int frameMs;
 	private PCamera cam;
 	private PCameraMover controller;
 	private PSectorWorld world;
@@ -45,7 +50,6 @@ public class PGame implements PThreadInterface, PMovementInputInterface, PFullKe
 			return;
 
 		}
-		frameMs = 1000 / params.frameRate;
 		cam = new PCamera(params);
 		controller = new PCameraMover(cam); 
 	}
@@ -75,15 +79,17 @@ public class PGame implements PThreadInterface, PMovementInputInterface, PFullKe
 	/**
 	 * Tests the game.
 	 * This is the entry point for the game test.
-	 * Loads a map file from resources an starts up the update worker.
+	 * Loads a map file from resources an starts up the scheduler, which steps 
+	 * the game at the tick rate and renders at up to the frame rate.
 	 */
 	private void testGame() {
 		String testFile = "test.pmap";
 		if (loadMapFile(testFile)) {
-			PUpdateWorker uw = new PUpdateWorker(frameMs);
-			uw.setInterface(this);
-			cam.getRenderer().terminateOnClose(uw);
-			uw.run();
+			PFixedStepScheduler scheduler = new PFixedStepScheduler(params.tickRate, 
+					params.frameRate, MAX_CATCH_UP_STEPS);
+			scheduler.setInterface(this);
+			cam.getRenderer().terminateOnClose(scheduler);
+			scheduler.run();
 		} else {
 			System.out.println("Failed to load test level");
 		}
@@ -113,21 +119,57 @@ public class PGame implements PThreadInterface, PMovementInputInterface, PFullKe
 	}
 
 	/**
-	 * Update loop.
-	 * Called by the update worker
+	 * Simulation step.
+	 * Called by the scheduler at the tick rate.
+	 * @param dt the length of the step in seconds
 	 */
 	@Override
-	public void update() {
+	public void step(double dt) {
+		PFrameMetrics metrics = cam.getMetrics();
+		metrics.mark();
 		final long debounceTime = 200;
 		if ((System.currentTimeMillis() - debounceTimer > debounceTime) 
 				&& (keyInputs[KeyEvent.VK_CONTROL] && keyInputs[KeyEvent.VK_M])) {
 			cam.cycleRenderMode();
 			debounceTimer = System.currentTimeMillis();
 		}
-		controller.update(keyInputs);
-		cam.update();
-		long renderMS = cam.draw(world);
+		metrics.lap(PFrameStage.INPUT);
+		cam.beginStep();
+		controller.update(keyInputs, dt);
+		metrics.lap(PFrameStage.SIMULATION);
+	}
+
+	/**
+	 * Render loop.
+	 * Called by the scheduler after each round of steps.
+	 * @param alpha how far to interpolate between the last 2 steps
+	 */
+	@Override
+	public void render(double alpha) {
+		long renderMS = cam.draw(world, alpha);
 		cam.getRenderer().writeToTitleBar("Frame ms: " + String.valueOf(renderMS));
+		if (params.metricsDumpSeconds > 0) {
+			dumpMetrics();
+		}
+	}
+
+	/**
+	 * Appends the camera's frame metrics to the metrics file in the working 
+	 * directory, if the dump interval has passed since the last dump.
+	 * @see com.ang.peLib.metrics.PFrameMetrics#appendTo(Path, long)
+	 */
+	private void dumpMetrics() {
+		long now = System.currentTimeMillis();
+		if (now < nextMetricsDump) return;
+
+		nextMetricsDump = now + params.metricsDumpSeconds * 1000L;
+		String extension = params.metricsDumpJSON ? ".json" : ".csv";
+		try {
+			cam.getMetrics().appendTo(Path.of(METRICS_FILE + extension), now);
+		} catch (IOException e) {
+			System.err.println("Failed to write frame metrics");
+			e.printStackTrace();
+		}
 	}
 
 	/**
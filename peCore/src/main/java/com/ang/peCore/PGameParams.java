@@ -16,11 +16,19 @@ import com.ang.peLib.resources.PResourceType;
  */
 public class PGameParams {
 	public int frameRate = 60;
+	public int tickRate = 60;
 	public int imageWidth = 320;
 	public double aspectRatio;
 	public double scale = 4.0;
 	public double fov;
 	public int imageHeight;
+	public boolean portalRendering = false;
+	public int renderThreads = 0;
+	public boolean projectedWalls = false;
+	public boolean frontToBack = false;
+	public boolean showFrameStats = false;
+	public int metricsDumpSeconds = 0;
+	public boolean metricsDumpJSON = false;
 
 	/**
 	 * Attempts to parse the json config file in the game's resources.
@@ -39,6 +47,9 @@ public class PGameParams {
 			frameRate = (int) extractor.tryToExtract(
 				"frameRate", 
 				PJSONValueType.INTEGER);
+			tickRate = (int) extractor.tryToExtract(
+				"tickRate", 
+				PJSONValueType.INTEGER);
 			imageWidth = (int) extractor.tryToExtract(
 				"imageWidth", 
 				PJSONValueType.INTEGER);
@@ -56,6 +67,27 @@ public class PGameParams {
 				"fovDenominator", 
 				PJSONValueType.DOUBLE);
 			fov = Math.PI / fovDenominator;
+			portalRendering = (boolean) extractor.tryToExtract(
+				"portalRendering", 
+				PJSONValueType.BOOLEAN);
+			renderThreads = (int) extractor.tryToExtract(
+				"renderThreads", 
+				PJSONValueType.INTEGER);
+			projectedWalls = (boolean) extractor.tryToExtract(
+				"projectedWalls", 
+				PJSONValueType.BOOLEAN);
+			frontToBack = (boolean) extractor.tryToExtract(
+				"frontToBack", 
+				PJSONValueType.BOOLEAN);
+			showFrameStats = (boolean) extractor.tryToExtract(
+				"showFrameStats", 
+				PJSONValueType.BOOLEAN);
+			metricsDumpSeconds = (int) extractor.tryToExtract(
+				"metricsDumpSeconds", 
+				PJSONValueType.INTEGER);
+			metricsDumpJSON = (boolean) extractor.tryToExtract(
+				"metricsDumpJSON", 
+				PJSONValueType.BOOLEAN);
 		} catch (PParseException e ) {
 			e.printStackTrace();
 			throw new PResourceException(res, PResourceExceptionType.READ_FAIL);
@@ -0,0 +1,98 @@
+package com.ang.peCore;
+
+import com.ang.peLib.hittables.PHitList;
+
+/**
+ * Stores the ray direction and sorted hits of every screen column for a
+ * single frame.
+ * Rays are cast once per frame into this buffer, which is then read by both
+ * the flat mask pass and the drawing pass. The hit lists are reused from
+ * frame to frame, so casting into the buffer does not allocate once it has
+ * grown to fit the world.
+ */
+public class PHitBuffer {
+	private final static int INITIAL_HITS = 16;
+	private PHitList[] hits;
+	private double[] dirX;
+	private double[] dirY;
+	private double[] dirLength;
+
+	/**
+	 * Constructs a new hit buffer for a given amount of screen columns.
+	 * @param width the width of the screen in pixels
+	 */
+	public PHitBuffer(int width) {
+		hits = new PHitList[width];
+		dirX = new double[width];
+		dirY = new double[width];
+		dirLength = new double[width];
+		for (int i = 0; i < width; i++) {
+			hits[i] = new PHitList(INITIAL_HITS);
+		}
+	}
+
+	/**
+	 * Returns the amount of columns stored in this buffer.
+	 * @return the width of the buffer
+	 */
+	public int getWidth() {
+		return hits.length;
+
+	}
+
+	/**
+	 * Stores the direction of the ray cast for a column.
+	 * @param x  the screen space x coordinate of the column
+	 * @param dx the x axis of the ray's direction
+	 * @param dy the y axis of the ray's direction
+	 */
+	public void setDirection(int x, double dx, double dy) {
+		dirX[x] = dx;
+		dirY[x] = dy;
+		dirLength[x] = Math.sqrt(dx * dx + dy * dy);
+	}
+
+	/**
+	 * Returns the x axis of the direction of the ray cast for a column.
+	 * @param  x the screen space x coordinate of the column
+	 * @return   the x axis of the ray's direction
+	 */
+	public double getDirX(int x) {
+		return dirX[x];
+
+	}
+
+	/**
+	 * Returns the y axis of the direction of the ray cast for a column.
+	 * @param  x the screen space x coordinate of the column
+	 * @return   the y axis of the ray's direction
+	 */
+	public double getDirY(int x) {
+		return dirY[x];
+
+	}
+
+	/**
+	 * Returns the length of the direction of the ray cast for a column.
+	 * Multiplying a hit's distance by this gives its distance in world units.
+	 * @param  x the screen space x coordinate of the column
+	 * @return   the length of the ray's direction
+	 */
+	public double getDirLength(int x) {
+		return dirLength[x];
+
+	}
+
+	/**
+	 * Returns the hit list for a column.
+	 * The list is written to while casting and holds the hits sorted by
+	 * distance afterwards.
+	 * @param  x the screen space x coordinate of the column
+	 * @return   the hit list for the column
+	 * @see   	 com.ang.peLib.hittables.PHitList
+	 */
+	public PHitList getHits(int x) {
+		return hits[x];
+
+	}
+}
@@ -0,0 +1,217 @@
+package com.ang.peCore;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com.ang.peLib.exceptions.PParseException;
+import com.ang.peLib.files.pmap.PPMapData;
+import com.ang.peLib.files.pmap.PPMapParser;
+import com.ang.peLib.graphics.PHeadlessRenderer;
+import com.ang.peLib.hittables.PSector;
+import com.ang.peLib.hittables.PSectorWorld;
+import com.ang.peLib.maths.PVec2;
+import com.ang.peLib.utils.PConvexDecomposer;
+
+/**
+ * Checks that frames drawn by the camera follow changes to the world.
+ */
+public class PCameraTest {
+	private final static String[] MAPS = {
+		"entrypoint.pmap", "simpleTest.pmap", "test.pmap", "testBackup.pmap", 
+		"testMap.pmap"
+	};
+	private final static int RANDOM_VIEWS = 24;
+	private final static long SEED = 42L;
+
+	/**
+	 * Draws a frame of a single square room, then another with the room's 
+	 * floor raised in place. Drawing again without changes must give the 
+	 * same frame, while the raised floor must change it.
+	 */
+	@Test
+	public void setHeightAfterDrawChangesNextFrame() {
+		PSectorWorld world = new PSectorWorld(1);
+		PSector room = square(-5.0, -5.0, new int[0]);
+		world.addSector(room);
+		PCamera camera = newCamera(false);
+		PHeadlessRenderer renderer = (PHeadlessRenderer) camera.getRenderer();
+		try {
+			camera.draw(world);
+			int[] before = renderer.copyPixels();
+			camera.draw(world);
+			assertArrayEquals(before, renderer.copyPixels());
+
+			room.setHeight(-0.5, 3.0);
+			camera.draw(world);
+			assertFalse(Arrays.equals(before, renderer.copyPixels()));
+		} finally {
+			camera.close();
+		}
+	}
+
+	/**
+	 * Raises the floor of a room seen through a portal after a frame has 
+	 * been drawn. The camera only copies the new heights, keeping the hits 
+	 * of the last frame, so its next frame must match a camera that has 
+	 * never drawn the world before.
+	 */
+	@Test
+	public void setHeightDrawsSameAsNewCamera() {
+		for (boolean portals : new boolean[]{false, true}) {
+			PSectorWorld world = new PSectorWorld(2);
+			world.addSector(square(-5.0, -5.0, new int[]{2, 3}));
+			PSector far = square(-5.0, 5.0, new int[]{0, 1});
+			world.addSector(far);
+			PCamera camera = newCamera(portals);
+			PCamera fresh = newCamera(portals);
+			try {
+				camera.draw(world);
+				far.setHeight(0.5, 2.5);
+				camera.draw(world);
+				fresh.draw(world);
+				assertArrayEquals(fresh.getRenderer().getPixels(), 
+						camera.getRenderer().getPixels());
+			} finally {
+				camera.close();
+				fresh.close();
+			}
+		}
+	}
+
+	/**
+	 * Draws every bundled map with projected walls on and off, from the 
+	 * map's starting view and from random views around the map, with and 
+	 * without portal rendering. Every frame must be identical.
+	 * @throws IOException    if a bundled map cannot be read
+	 * @throws PParseException if a bundled map cannot be parsed
+	 */
+	@Test
+	public void projectedWallsDrawSameAsCast() throws IOException, PParseException {
+		for (String name : MAPS) {
+			PPMapData data = new PPMapParser(name).parseMapData(mapLines(name));
+			PSectorWorld world = new PConvexDecomposer(data.world).decompose();
+			double minX = Double.POSITIVE_INFINITY;
+			double minY = Double.POSITIVE_INFINITY;
+			double maxX = Double.NEGATIVE_INFINITY;
+			double maxY = Double.NEGATIVE_INFINITY;
+			for (PSector sec : world.getSectors()) {
+				minX = Math.min(minX, sec.getMinX());
+				minY = Math.min(minY, sec.getMinY());
+				maxX = Math.max(maxX, sec.getMaxX());
+				maxY = Math.max(maxY, sec.getMaxY());
+			}
+			for (boolean portals : new boolean[]{false, true}) {
+				PCamera cast = newCamera(portals, false);
+				PCamera projected = newCamera(portals, true);
+				Random rand = new Random(SEED);
+				try {
+					for (int v = 0; v <= RANDOM_VIEWS; v++) {
+						PVec2 position = data.position;
+						PVec2 facing = data.facing;
+						if (v > 0) {
+							position = new PVec2(minX + rand.nextDouble() * (maxX - minX), 
+									minY + rand.nextDouble() * (maxY - minY));
+							double theta = rand.nextDouble() * 2.0 * Math.PI;
+							facing = new PVec2(Math.cos(theta), Math.sin(theta));
+						}
+						for (PCamera camera : new PCamera[]{cast, projected}) {
+							camera.setTransform(position, facing);
+							camera.update();
+							camera.draw(world);
+						}
+						assertArrayEquals(cast.getRenderer().getPixels(), 
+								projected.getRenderer().getPixels(), 
+								name + " view " + v + " portals " + portals);
+					}
+				} finally {
+					cast.close();
+					projected.close();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Reads the non-blank lines of a map bundled in the game's resources.
+	 * @param  name 	   the file name of the map
+	 * @return 			   the lines of the map
+	 * @throws IOException if the map cannot be found or read
+	 */
+	private String[] mapLines(String name) throws IOException {
+		InputStream in = PCameraTest.class.getResourceAsStream("/map/" + name);
+		assertNotNull(in, "missing map " + name);
+		List<String> lines = new ArrayList<String>();
+		try (BufferedReader reader = new BufferedReader(
+				new InputStreamReader(in, StandardCharsets.UTF_8))) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				if (!line.isBlank()) lines.add(line);
+			}
+		}
+		return lines.toArray(new String[0]);
+
+	}
+
+	/**
+	 * Builds a square room 10 units wide, from a floor of -1 to a ceiling of 3.
+	 * @param  x0 	   the x coordinate of the room's bottom left corner
+	 * @param  y0 	   the y coordinate of the room's bottom left corner
+	 * @param  portals indices of the corners bounding portals, anticlockwise 
+	 * 				   from the bottom left corner
+	 * @return 		   the room
+	 */
+	private PSector square(double x0, double y0, int[] portals) {
+		PSector room = new PSector(new PVec2[]{
+			new PVec2(x0, y0), new PVec2(x0 + 10.0, y0), 
+			new PVec2(x0 + 10.0, y0 + 10.0), new PVec2(x0, y0 + 10.0)
+		}, portals);
+		room.setHeight(-1.0, 3.0);
+		return room;
+
+	}
+
+	/**
+	 * Builds a small headless camera at the origin, looking along the y axis.
+	 * @param  portals if the camera should use portal rendering
+	 * @return 		   the initialized camera, which must be closed
+	 */
+	private PCamera newCamera(boolean portals) {
+		return newCamera(portals, false);
+
+	}
+
+	/**
+	 * Builds a small headless camera at the origin, looking along the y axis.
+	 * @param  portals 	 if the camera should use portal rendering
+	 * @param  projected if the camera should project walls instead of casting
+	 * @return 			 the initialized camera, which must be closed
+	 */
+	private PCamera newCamera(boolean portals, boolean projected) {
+		PGameParams params = new PGameParams();
+		params.imageWidth = 160;
+		params.imageHeight = 90;
+		params.fov = Math.PI / 2.0;
+		params.renderThreads = 1;
+		params.portalRendering = portals;
+		params.projectedWalls = projected;
+		PCamera camera = new PCamera(params);
+		camera.initHeadless();
+		camera.setTransform(new PVec2(0.0, 0.0), new PVec2(0.0, 1.0));
+		camera.update();
+		return camera;
+
+	}
+}
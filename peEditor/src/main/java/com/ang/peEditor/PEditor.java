@@ -216,7 +216,7 @@ public class PEditor implements PMouseInputInterface, PEditorInterface {
 		}
 		PSector sec = mapHandler.getSaveData().editableMapData.world
 				.getSector(selSecIndex);
-		sec.getCorners()[selCorIndex] = newPos;
+		sec.replaceCornerAt(selCorIndex, newPos);
 		gui.openDataPanel(getDataForSelected());
 	}
 
@@ -406,7 +406,7 @@ public class PEditor implements PMouseInputInterface, PEditorInterface {
 			PVec2 newPos = new PVec2(val, sector.getCorner(panelEntry.cornerIndex).y());
 			history.push(editableData.world.copy());
 			// move corner
-			sector.getCorners()[panelEntry.cornerIndex] = newPos;
+			sector.replaceCornerAt(panelEntry.cornerIndex, newPos);
 			}
 			break;
 
@@ -416,7 +416,7 @@ public class PEditor implements PMouseInputInterface, PEditorInterface {
 			PVec2 newPos = new PVec2(sector.getCorner(panelEntry.cornerIndex).x(), val);
 			history.push(editableData.world.copy());
 			// move corner
-			sector.getCorners()[panelEntry.cornerIndex] = newPos;
+			sector.replaceCornerAt(panelEntry.cornerIndex, newPos);
 			}
 			break;
 
@@ -215,7 +215,7 @@ public class PGUIRenderer extends PRenderer {
 
 				}
 				if (x0 * x0 + y0 * y0 <= radius * radius) {
-					img.setRGB(x0 + x, y0 + y, circleColour);
+					pixels[(y0 + y) * width + x0 + x] = circleColour;
 				}
 			}
 		}
@@ -255,14 +255,14 @@ public class PGUIRenderer extends PRenderer {
 	 * @param y0 	 next y in pixels
 	 */
 	private void writeSymmetricPixels(int colour, int x, int y, int x0, int y0) {
-		if (inBounds(x + x0, y + y0)) img.setRGB(x + x0, y + y0, colour);
-		if (inBounds(x - x0, y + y0)) img.setRGB(x - x0, y + y0, colour);
-		if (inBounds(x + x0, y - y0)) img.setRGB(x + x0, y - y0, colour);
-		if (inBounds(x - x0, y - y0)) img.setRGB(x - x0, y - y0, colour);
-		if (inBounds(x + y0, y + x0)) img.setRGB(x + y0, y + x0, colour);
-		if (inBounds(x - y0, y + x0)) img.setRGB(x - y0, y + x0, colour);
-		if (inBounds(x + y0, y - x0)) img.setRGB(x + y0, y - x0, colour);
-		if (inBounds(x - y0, y - x0)) img.setRGB(x - y0, y - x0, colour);
+		if (inBounds(x + x0, y + y0)) pixels[(y + y0) * width + x + x0] = colour;
+		if (inBounds(x - x0, y + y0)) pixels[(y + y0) * width + x - x0] = colour;
+		if (inBounds(x + x0, y - y0)) pixels[(y - y0) * width + x + x0] = colour;
+		if (inBounds(x - x0, y - y0)) pixels[(y - y0) * width + x - x0] = colour;
+		if (inBounds(x + y0, y + x0)) pixels[(y + x0) * width + x + y0] = colour;
+		if (inBounds(x - y0, y + x0)) pixels[(y + x0) * width + x - y0] = colour;
+		if (inBounds(x + y0, y - x0)) pixels[(y - x0) * width + x + y0] = colour;
+		if (inBounds(x - y0, y - x0)) pixels[(y - x0) * width + x - y0] = colour;
 	}
 
 	/**
@@ -295,13 +295,7 @@ public class PGUIRenderer extends PRenderer {
 	public void fillTileAround(PColour colour, int width, int height, int x, int y) {
 		int tileColour = processToInt(colour);
 		for (int j = y - (height / 2); j < y + (height / 2); j++) {
-			for (int i = x - (width / 2); i < x + (width / 2); i++) {
-				if (!inBounds(i, j)) {
-					continue;
-
-				}
-				img.setRGB(i, j, tileColour);
-			}
+			writeRow(tileColour, j, x - (width / 2), x + (width / 2) - 1);
 		}
 	}
 
@@ -1,6 +1,7 @@
 package com.ang.peEditor.history;
 
 import com.ang.peLib.hittables.PSectorWorld;
+import com.ang.peLib.metrics.PHistoryPushEvent;
 
 /**
  * Saves world states in a stack for undoing / redoing.
@@ -23,14 +24,19 @@ public class PHistory {
 	 * @see   		com.ang.peLib.hittables.PSectorWorld
 	 */
 	public void push(PSectorWorld entry) {
+		PHistoryPushEvent event = new PHistoryPushEvent();
+		event.begin();
 		PSectorWorld[] newEntries = new PSectorWorld[entries.length];
+		int count = 1;
 		for (int i = 0; i < entries.length - 1; i++) {
 			if (entries[i] == null) break;
 
 			newEntries[i + 1] = entries[i].copy();
+			count++;
 		}
 		newEntries[0] = entry.copy();
 		entries = newEntries;
+		event.finish(count, entry.size());
 	}
 
 	/**
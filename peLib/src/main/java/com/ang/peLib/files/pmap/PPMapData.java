@@ -49,6 +49,8 @@ public class PPMapData extends PCopyable {
 	 * <li>The coordinates of the player's starting position
 	 * <li>The camera's starting orientation vector
 	 * <li>The colours that are in the level (field is not currently used)
+	 * <li>The name of the wall texture of each sector, or {@code -} for none 
+	 * (optional, only written if a sector is textured)
 	 * </ul>
 	 * <p>
 	 * The data is sorted under headings preceded by an exclamation mark. The 
@@ -62,6 +64,7 @@ public class PPMapData extends PCopyable {
 	 * <li>Player position:   "!POSITION"
 	 * <li>Camera direction:  "!FACING"
 	 * <li>Colours:			  "!COLOUR"
+	 * <li>Wall textures:	  "!TEXTURE"
 	 * </ul>
 	 * These headings do not have to be defined in order 
 	 * <strong>except for the version which must be at the top</strong>
@@ -113,6 +116,13 @@ public class PPMapData extends PCopyable {
 		// TODO: implement for real
 		lines[head++] = "!COLOUR";
 		lines[head++] = "1.0 1.0 1.0";
+		if (hasTextures()) {
+			lines[head++] = "!TEXTURE";
+			for (PSector sec : world.getSectors()) {
+				String texture = sec.getWallTexture();
+				lines[head++] = (texture == null) ? "-" : texture;
+			}
+		}
 		return lines;
 
 	}
@@ -131,7 +141,23 @@ public class PPMapData extends PCopyable {
 		}
 		// TODO: temporarily adding 1 colour, implement
 		count += 1;
+		if (hasTextures()) {
+			count += 1 + world.getSectors().length;
+		}
 		return count;
 
 	}
+
+	/**
+	 * Checks if any sector in the map has a wall texture.
+	 * @return {@code true} if a sector is textured, else {@code false}
+	 */
+	private boolean hasTextures() {
+		for (PSector sec : world.getSectors()) {
+			if (sec.getWallTexture() != null) return true;
+
+		}
+		return false;
+
+	}
 }
@@ -4,6 +4,7 @@ import com.ang.peLib.files.PFileReader;
 import com.ang.peLib.files.PFileWriter;
 import com.ang.peLib.files.PResourceFileReader;
 import com.ang.peLib.exceptions.*;
+import com.ang.peLib.metrics.PMapLoadEvent;
 import com.ang.peLib.resources.*;
 
 /**
@@ -88,8 +89,13 @@ public class PPMapHandler {
 	 */
 	public void loadMapData(String name) throws PResourceException {
 		PResource res = PResourceManager.fetch(PResourceType.PMAP, name);
+		PMapLoadEvent readEvent = new PMapLoadEvent();
+		readEvent.begin();
 		PResourceFileReader reader = new PResourceFileReader();
 		String[] lines = reader.readFile(PResourceType.PMAP, name);
+		readEvent.finish(PMapLoadEvent.READ, name, lines.length, 0);
+		PMapLoadEvent parseEvent = new PMapLoadEvent();
+		parseEvent.begin();
 		PPMapData mapData;
 		PPMapParser parser = new PPMapParser(PResourceManager.MAP_DIR + name);
 		try {
@@ -98,6 +104,7 @@ public class PPMapHandler {
 			throw new PResourceException(res, PResourceExceptionType.READ_FAIL);
 
 		}
+		parseEvent.finish(PMapLoadEvent.PARSE, name, lines.length, mapData.world.size());
 		saveData.editableMapData = mapData;
 		saveData.savedMapData = mapData.copy();
 		saveData.name = name;
@@ -114,9 +121,14 @@ public class PPMapHandler {
 			throw new PResourceException(res, PResourceExceptionType.NOT_FOUND);
 			
 		}
+		PMapLoadEvent readEvent = new PMapLoadEvent();
+		readEvent.begin();
 		String[] lines;
 		PFileReader reader = new PFileReader();
 		lines = reader.readFile(PResourceType.PMAP, module, name);
+		readEvent.finish(PMapLoadEvent.READ, name, lines.length, 0);
+		PMapLoadEvent parseEvent = new PMapLoadEvent();
+		parseEvent.begin();
 		PPMapData mapData;
 		PPMapParser parser = new PPMapParser(PResourceManager.getDirOf(
 				PResourceType.PMAP, module) + name);
@@ -126,6 +138,7 @@ public class PPMapHandler {
 			throw new PResourceException(res, PResourceExceptionType.READ_FAIL);
 
 		}
+		parseEvent.finish(PMapLoadEvent.PARSE, name, lines.length, mapData.world.size());
 		saveData.editableMapData = mapData;
 		saveData.savedMapData = mapData.copy();
 		saveData.name = name;
@@ -68,6 +68,7 @@ public class PPMapParser {
 		PVec2[] heights = new PVec2[0];
 		int[] portals = new int[0];
 		PColour[] colours = new PColour[0];
+		String[] textures = new String[0];
 		for (int i = 0; i < lines.length; i++) {
 			String line = lines[i];
 			if (line.equals("!CORNER")) {
@@ -80,13 +81,15 @@ public class PPMapParser {
 				portals = extractInts(i + 1, lines);
 			} else if (line.equals("!COLOUR")) {
 				colours = extractColours(i + 1, lines);	
+			} else if (line.equals("!TEXTURE")) {
+				textures = extractNames(i + 1, lines);
 			}
 		}
 		if ((corners.length == 0) || (sectors.length == 0) || (colours.length == 0)) {
 			throw new PParseException(path, 0);
 
 		}
-		return constructWorld(corners, sectors, heights, portals, colours);
+		return constructWorld(corners, sectors, heights, portals, colours, textures);
 
 	}
 
@@ -101,6 +104,9 @@ public class PPMapParser {
 	 * @param  portals 		   indices into the specified corners that are the 
 	 * 						   bounds of a portal
 	 * @param  colours 		   the colours to be used in the world (not currently used)
+	 * @param  textures 	   the wall texture of each sector, {@code null} for 
+	 * 						   sectors without one. May be shorter than the 
+	 * 						   amount of sectors, or empty.
 	 * @return 				   a new {@link com.ang.peLib.hittables.PSectorWorld}
 	 * 						   constructed from the specified data
 	 * @throws PParseException if there is a problem with constructing the 
@@ -110,7 +116,7 @@ public class PPMapParser {
 	 * @see 				   com.ang.peLib.maths.PVec2
 	 */
 	private PSectorWorld constructWorld(PVec2[] corners, int[] sectors, PVec2[] heights, 
-			int[] portals, PColour[] colours) throws PParseException {
+			int[] portals, PColour[] colours, String[] textures) throws PParseException {
 		PSectorWorld world = new PSectorWorld(1000); // arbitrary size limit
 		for (int i = 0; i < sectors.length; i++) {
 			// get sector limits
@@ -134,6 +140,9 @@ public class PPMapParser {
 			// create and add sector
 			PSector sec = new PSector(sectorCorners, sectorPortals);	
 			sec.setHeight(heights[i].x(), heights[i].y());
+			if (i < textures.length) {
+				sec.setWallTexture(textures[i]);
+			}
 			world.addSector(sec);
 		}
 		return world;
@@ -263,7 +272,7 @@ public class PPMapParser {
 					throw new PParseException(path, i);
 
 				}
-				return new PColour[0];	
+				break;
 
 			}
 			String[] nums = line.split("\\s+");
@@ -279,4 +288,36 @@ public class PPMapParser {
 		return PArrays.reduceArray(array, head, PColour.class);
 
 	}
+
+	/**
+	 * Parses names starting from a specific line.
+	 * Each line holds a single name, a line containing only {@code -} is 
+	 * parsed as {@code null}.
+	 * @param  lines		   array of strings representing each line from a 
+	 * 						   .pmap file
+	 * @param  startLine 	   the line number that contains the heading under 
+	 * 						   which the names should be parsed
+	 * @return 				   string array containing the data found under the 
+	 * 						   heading
+	 * @throws PParseException if there is a problem with parsing the data
+	 * @see 				   PPMapData
+	 */
+	private String[] extractNames(int startLine, String[] lines) throws PParseException {
+		String[] array = new String[lines.length - startLine];
+		int head = 0;
+		for (int i = startLine; i < lines.length; i++) {
+			String line = lines[i].trim();
+			if (line.charAt(0) == '!') {
+				break;
+
+			}
+			if (line.split("\\s+").length != 1) {
+				throw new PParseException(path, i);
+
+			}
+			array[head++] = line.equals("-") ? null : line;
+		}
+		return PArrays.reduceArray(array, head, String.class);
+
+	}
 }
@@ -6,9 +6,12 @@ import com.ang.peLib.utils.PCopyable;
  * Represents a colour with 3 channels (r, g, b) and provides utilities.
  */
 public class PColour extends PCopyable {
+	private final static int GAMMA_LUT_MAX = 4095;
+	private final static int[] GAMMA_LUT = buildGammaLUT();
 	private double r;
 	private double g;
 	private double b;
+	private int rgb = -1; // cached gamma space colour, -1 if not yet converted
 
 	public final static PColour WHITE = new PColour(1.0, 1.0, 1.0);
 	public final static PColour BLACK = new PColour(0.0, 0.0, 0.0);
@@ -114,6 +117,89 @@ public class PColour extends PCopyable {
 		case 2 -> b = val;
 		default -> throw new IndexOutOfBoundsException();
 		}
+		rgb = -1;
+	}
+
+	/**
+	 * Returns the colour converted from linear to gamma space as a packed int.
+	 * The conversion is only done once, the result is cached until the colour 
+	 * is changed.
+	 * @return the colour as a {@link java.awt.image.BufferedImage#TYPE_INT_RGB} value
+	 */
+	public int toRGB() {
+		if (rgb == -1) {
+			rgb = shade(1.0);
+		}
+		return rgb;
+
+	}
+
+	/**
+	 * Returns the colour multiplied by a value and converted from linear to 
+	 * gamma space as a packed int.
+	 * This is equivalent to {@code mul(t).toRGB()} but uses a lookup table 
+	 * and does not allocate a new colour, so it can be used to shade colours 
+	 * by depth while rendering.
+	 * @param  t the value to multiply in
+	 * @return   the shaded colour as a 
+	 * 			 {@link java.awt.image.BufferedImage#TYPE_INT_RGB} value
+	 */
+	public int shade(double t) {
+		return (gammaComponent(r * t) << 16) | (gammaComponent(g * t) << 8) 
+				| gammaComponent(b * t);
+
+	}
+
+	/**
+	 * Maps a value to a colour on a heatmap scale as a packed int.
+	 * The scale runs from black at 0.0 through blue, green and yellow to red 
+	 * at 1.0, values outside of this range are clamped.
+	 * @param  t the value (0.0 - 1.0) to map
+	 * @return   the heatmap colour as a 
+	 * 			 {@link java.awt.image.BufferedImage#TYPE_INT_RGB} value
+	 */
+	public static int heat(double t) {
+		if (!(t > 0.0)) return 0;
+
+		if (t >= 1.0) return 0xff0000;
+
+		double scaled = t * 4.0;
+		int band = (int) scaled;
+		int f = (int) ((scaled - band) * 255.0);
+		switch (band) {
+			case 0 -> { return f; } // black to blue
+			case 1 -> { return (f << 8) | (255 - f); } // blue to green
+			case 2 -> { return (f << 16) | 0x00ff00; } // green to yellow
+			default -> { return 0xff0000 | ((255 - f) << 8); } // yellow to red
+		}
+	}
+
+	/**
+	 * Converts a single linear colour channel to an 8 bit gamma space channel.
+	 * @param  val the intensity (0.0 - 1.0) of the channel, values outside of 
+	 * 			   this range are clamped
+	 * @return     the gamma corrected channel (0 - 255)
+	 */
+	private static int gammaComponent(double val) {
+		if (!(val > 0.0)) return 0;
+
+		if (val >= 1.0) return 255;
+
+		return GAMMA_LUT[(int) (val * GAMMA_LUT_MAX + 0.5)];
+
+	}
+
+	/**
+	 * Builds the lookup table used to convert linear channels to gamma space.
+	 * @return table mapping evenly spaced linear intensities to 8 bit channels
+	 */
+	private static int[] buildGammaLUT() {
+		int[] lut = new int[GAMMA_LUT_MAX + 1];
+		for (int i = 0; i <= GAMMA_LUT_MAX; i++) {
+			lut[i] = (int) Math.min(Math.sqrt((double) i / GAMMA_LUT_MAX) * 255, 255);
+		}
+		return lut;
+
 	}
 
 	/**
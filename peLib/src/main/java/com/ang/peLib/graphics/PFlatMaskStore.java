@@ -0,0 +1,172 @@
+package com.ang.peLib.graphics;
+
+import java.util.Arrays;
+
+/**
+ * Reusable store for the floor and ceiling masks of every visible sector.
+ * Each sector given a mask this frame owns one contiguous {@code int[]} with
+ * 4 entries per screen column, laid out as floor low, floor high, ceiling
+ * low, ceiling high. Mask arrays are pooled and handed out again next frame,
+ * so once the store has grown to fit the most sectors visible at once no
+ * more arrays are allocated.
+ * <p>
+ * Columns are not cleared between frames. Every column of a mask carries the
+ * frame it was last written in, a column is reset when it is first written
+ * in a frame and reads of a column not written this frame return the empty
+ * bounds. Only the columns that were touched are ever reset.
+ * <p>
+ * Sectors must be assigned masks from a single thread, after which separate
+ * threads may write to separate columns without locking.
+ */
+public class PFlatMaskStore {
+	public final static int FLOOR_LO = 0;
+	public final static int FLOOR_HI = 1;
+	public final static int CEILING_LO = 2;
+	public final static int CEILING_HI = 3;
+	private final static int STRIDE = 4;
+	private final int width;
+	private final int height;
+	private int[][] masks = new int[0][];
+	private int[][] stamps = new int[0][];
+	private int[] sectorSlots = new int[0];
+	private int[] slotSectors = new int[0];
+	private int slotCount = 0;
+	private int stamp = 0;
+
+	/**
+	 * Constructs a new flat mask store for a screen size.
+	 * @param width  the width of the screen in pixels
+	 * @param height the height of the screen in pixels
+	 */
+	public PFlatMaskStore(int width, int height) {
+		this.width = width;
+		this.height = height;
+	}
+
+	/**
+	 * Starts a new frame, releasing the masks of the last frame.
+	 * @param sectorCount the amount of sectors in the world being drawn
+	 */
+	public void begin(int sectorCount) {
+		if (sectorSlots.length < sectorCount) {
+			sectorSlots = new int[sectorCount];
+			Arrays.fill(sectorSlots, -1);
+		} else {
+			for (int i = 0; i < slotCount; i++) {
+				sectorSlots[slotSectors[i]] = -1;
+			}
+		}
+		slotCount = 0;
+		if (++stamp == Integer.MAX_VALUE) {
+			for (int[] s : stamps) Arrays.fill(s, 0);
+			stamp = 1;
+		}
+	}
+
+	/**
+	 * Gives a sector a mask for this frame if it does not have one yet.
+	 * @param sectorIndex the index of the sector in the world
+	 */
+	public void assign(int sectorIndex) {
+		if (sectorSlots[sectorIndex] >= 0) return;
+
+		if (slotCount == masks.length) {
+			grow(Math.max(8, masks.length * 2));
+		}
+		slotSectors[slotCount] = sectorIndex;
+		sectorSlots[sectorIndex] = slotCount++;
+	}
+
+	/**
+	 * Returns the amount of sectors with a mask this frame.
+	 * @return the amount of sectors with a mask
+	 */
+	public int getSectorCount() {
+		return slotCount;
+
+	}
+
+	/**
+	 * Returns the sector holding a mask.
+	 * @param  slot the index of the mask, less than {@link #getSectorCount()}
+	 * @return 		the index of the sector in the world
+	 */
+	public int getSector(int slot) {
+		return slotSectors[slot];
+
+	}
+
+	/**
+	 * Returns one of the bounds saved for a column of a sector's mask.
+	 * Columns that were not written this frame return the empty bounds.
+	 * @param  sectorIndex the index of the sector in the world, which must
+	 * 					   have been assigned a mask this frame
+	 * @param  x 		   the screen space x coordinate of the column
+	 * @param  bound 	   which bound to return, one of {@link #FLOOR_LO},
+	 * 					   {@link #FLOOR_HI}, {@link #CEILING_LO} or
+	 * 					   {@link #CEILING_HI}
+	 * @return 			   the y pixel coordinate of the bound
+	 */
+	public int get(int sectorIndex, int x, int bound) {
+		int slot = sectorSlots[sectorIndex];
+		if (stamps[slot][x] != stamp) {
+			return ((bound & 1) == 0) ? height - 1 : 0;
+
+		}
+		return masks[slot][x * STRIDE + bound];
+
+	}
+
+	/**
+	 * Saves the bounds of a vertical column of pixels to a sector's mask.
+	 * @param sectorIndex   the index of the sector in the world, which must
+	 * 					    have been assigned a mask this frame
+	 * @param floorHeight   the height of the sector's floor relative to the 
+	 * 						camera
+	 * @param ceilingHeight the height of the sector's ceiling relative to the 
+	 * 						camera
+	 * @param backface 	    if the intersection being masked is with the back 
+	 * 						of a wall
+	 * @param x			    x coordinate of the pixel being saved
+	 * @param bounds        the upper and lower pixel coordinates of the column 
+	 * 						at the x point
+	 * @see 			    com.ang.peLib.hittables.PHitRecord#isBackface()
+	 */
+	public void save(int sectorIndex, double floorHeight, double ceilingHeight, 
+			boolean backface, int x, int[] bounds) {
+		int slot = sectorSlots[sectorIndex];
+		int[] mask = masks[slot];
+		int i = x * STRIDE;
+		if (stamps[slot][x] != stamp) {
+			stamps[slot][x] = stamp;
+			mask[i + FLOOR_LO] = height - 1;
+			mask[i + FLOOR_HI] = 0;
+			mask[i + CEILING_LO] = height - 1;
+			mask[i + CEILING_HI] = 0;
+		}
+		boolean floorBelow = floorHeight < 0.0;
+		boolean ceilingAbove = ceilingHeight > 0.0;
+		if (backface) {
+			mask[i + (floorBelow ? FLOOR_HI : FLOOR_LO)] = bounds[0];
+			mask[i + (ceilingAbove ? CEILING_LO : CEILING_HI)] = bounds[1];
+		} else {
+			mask[i + (floorBelow ? FLOOR_LO : FLOOR_HI)] = bounds[0];
+			mask[i + (ceilingAbove ? CEILING_HI : CEILING_LO)] = bounds[1];
+		}
+	}
+
+	/**
+	 * Grows the pool of masks, keeping the masks already allocated.
+	 * @param capacity the new amount of masks in the pool
+	 */
+	private void grow(int capacity) {
+		int old = masks.length;
+		masks = Arrays.copyOf(masks, capacity);
+		stamps = Arrays.copyOf(stamps, capacity);
+		slotSectors = Arrays.copyOf(slotSectors, capacity);
+		for (int i = old; i < capacity; i++) {
+			masks[i] = new int[width * STRIDE];
+			stamps[i] = new int[width];
+		}
+	}
+}
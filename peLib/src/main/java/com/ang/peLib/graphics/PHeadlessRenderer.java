@@ -0,0 +1,143 @@
+package com.ang.peLib.graphics;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import javax.imageio.ImageIO;
+
+/**
+ * Renders into an offscreen image without creating a window.
+ * No AWT window or event thread is used, so this renderer works with
+ * {@code java.awt.headless=true} and can be drawn into from any thread,
+ * such as on build agents, in benchmarks or in image regression tests.
+ * Window operations do nothing. Frames are rendered into a single image, so
+ * a presented frame stays in the image until the next frame is drawn and
+ * can be exported as raw pixels or as a PNG. Exports must not overlap with
+ * drawing the next frame.
+ */
+public class PHeadlessRenderer extends PRenderer {
+	private long framesPresented = 0;
+
+	/**
+	 * Constructs a new headless renderer.
+	 * @param width  the width of the image to render to
+	 * @param height the height of the image to render to
+	 */
+	public PHeadlessRenderer(int width, int height) {
+		super(width, height);
+	}
+
+	/**
+	 * Does nothing, as there is no window to initialize.
+	 */
+	@Override
+	public void init() {}
+
+	/**
+	 * Does nothing, as there is no title bar to write to.
+	 * @param text ignored
+	 */
+	@Override
+	public void writeToTitleBar(String text) {}
+
+	/**
+	 * Returns the width of the image, as there is no window.
+	 * @return the width of the image
+	 */
+	@Override
+	public int getWindowWidth() {
+		return width;
+
+	}
+
+	/**
+	 * Returns the height of the image, as there is no window.
+	 * @return the height of the image
+	 */
+	@Override
+	public int getWindowHeight() {
+		return height;
+
+	}
+
+	/**
+	 * Does nothing, as there is no window to scale.
+	 * @param multiplier ignored
+	 */
+	@Override
+	public void setScale(double multiplier) {}
+
+	/**
+	 * Stops the workers set to be terminated on close.
+	 */
+	@Override
+	public void close() {
+		for (int i = 0; i < workersToKill.length; i++) {
+			workersToKill[i].doStop();
+		}
+	}
+
+	/**
+	 * Does nothing, as there is no window to refresh.
+	 */
+	@Override
+	public void repaint() {}
+
+	/**
+	 * Marks the rendered frame as complete.
+	 * The frame is left in the image, so it can be exported until the next
+	 * frame is drawn.
+	 */
+	@Override
+	public void present() {
+		framesPresented++;
+	}
+
+	/**
+	 * Does nothing, frames are always rendered into a single image.
+	 * With no window painting frames there is nothing for rendering to wait
+	 * on, and a single image keeps the last presented frame exportable.
+	 */
+	@Override
+	public void enableTripleBuffering() {}
+
+	/**
+	 * Returns the amount of frames presented since construction.
+	 * @return the amount of frames presented
+	 */
+	public long getFramesPresented() {
+		return framesPresented;
+
+	}
+
+	/**
+	 * Returns a copy of the pixels of the image.
+	 * Pixels are stored the same as in {@link #getPixels()}.
+	 * @return a new array holding the pixels of the image
+	 */
+	public int[] copyPixels() {
+		return pixels.clone();
+
+	}
+
+	/**
+	 * Copies the pixels of the image into an existing array.
+	 * Pixels are stored the same as in {@link #getPixels()}.
+	 * @param dst the array to copy into, at least {@code width * height} long
+	 */
+	public void copyPixels(int[] dst) {
+		System.arraycopy(pixels, 0, dst, 0, pixels.length);
+	}
+
+	/**
+	 * Writes the image to a PNG file.
+	 * @param  path 	   the path of the file to write, replacing any existing
+	 * 					   file
+	 * @throws IOException if there is a problem with writing the file
+	 */
+	public void writePNG(Path path) throws IOException {
+		if (!ImageIO.write(img, "png", path.toFile())) {
+			throw new IOException("no PNG writer available");
+
+		}
+	}
+}
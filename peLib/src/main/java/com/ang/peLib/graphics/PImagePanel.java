@@ -10,6 +10,7 @@ import javax.swing.JPanel;
  */
 public class PImagePanel extends JPanel {
 	private BufferedImage image;
+	private PTripleBuffer buffers;
 	private Graphics g;
 
 	/**
@@ -19,6 +20,16 @@ public class PImagePanel extends JPanel {
 		this.image = image;
 	}
 
+	/**
+	 * Presents frames from a set of triple buffered images instead of a 
+	 * single image.
+	 * @param buffers the buffers to present the newest frame from
+	 * @see   		  PTripleBuffer
+	 */
+	public void setBuffers(PTripleBuffer buffers) {
+		this.buffers = buffers;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 * Overriden function allowing for writing individual pixels to the image.
@@ -26,8 +37,9 @@ public class PImagePanel extends JPanel {
 	@Override
 	protected void paintComponent(Graphics g) {
 		super.paintComponent(g);
-		if (image != null) {
-			g.drawImage(image, 0, 0, getWidth(), getHeight(), this);
+		BufferedImage frame = (buffers != null) ? buffers.acquireFront() : image;
+		if (frame != null) {
+			g.drawImage(frame, 0, 0, getWidth(), getHeight(), this);
 		}
 		this.g = g;
 	}
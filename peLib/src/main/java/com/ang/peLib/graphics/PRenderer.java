@@ -1,12 +1,14 @@
 package com.ang.peLib.graphics;
 
 import com.ang.peLib.inputs.*;
-import com.ang.peLib.threads.PUpdateWorker;
+import com.ang.peLib.threads.PStoppable;
 
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
 import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
 import java.awt.Dimension;
+import java.util.Arrays;
 import javax.swing.JFrame;
 import javax.swing.JPanel;
 
@@ -17,13 +19,31 @@ import javax.swing.JPanel;
  * which treats (0, 0) as the top left)
  */
 public class PRenderer {
-	private PUpdateWorker[] workersToKill = new PUpdateWorker[0];
-	protected JFrame frame = new JFrame();
+	protected PStoppable[] workersToKill = new PStoppable[0];
+	protected JFrame frame;
 	protected BufferedImage img;
+	protected int[] pixels;
 	protected int width;
 	protected int height;
 	protected JPanel imgPanel;
 	protected PListener listener;
+	protected PTripleBuffer buffers;
+	protected int[] writeCounts;
+
+	/**
+	 * Constructs the image rendered to, without creating a window.
+	 * Subclasses that render offscreen use this instead of the public 
+	 * constructors, which require a window to be created.
+	 * @param width  the width of the image to render to
+	 * @param height the height of the image to render to
+	 * @see   		 PHeadlessRenderer
+	 */
+	protected PRenderer(int width, int height) {
+		this.width = width;
+		this.height = height;
+		this.img = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+		this.pixels = ((DataBufferInt) img.getRaster().getDataBuffer()).getData();
+	}
 
 	/**
 	 * Constructs the renderer with a listener for keyboard inputs.
@@ -36,9 +56,8 @@ public class PRenderer {
 	 * @see   		   com.ang.peLib.inputs.PMovementInputListener
 	 */
 	public PRenderer(int width, int height, PMovementInputListener listener) {
-		this.width = width;
-		this.height = height;
-		this.img = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+		this(width, height);
+		this.frame = new JFrame();
 		this.imgPanel = new PImagePanel(img);
 		this.listener = listener;
 	}
@@ -55,9 +74,8 @@ public class PRenderer {
 	 * @see   		   com.ang.peLib.inputs.PMouseInputListener
 	 */
 	public PRenderer(int width, int height, PMouseInputListener listener) {
-		this.width = width;
-		this.height = height;
-		this.img = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+		this(width, height);
+		this.frame = new JFrame();
 		this.imgPanel = new PImagePanel(img);
 		this.listener = listener;
 	}
@@ -71,9 +89,8 @@ public class PRenderer {
 	 * @see   		   com.ang.peLib.inputs.PMouseInputListener
 	 */
 	public PRenderer(int width, int height, PFullKeyboardInputListener listener) {
-		this.width = width;
-		this.height = height;
-		this.img = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+		this(width, height);
+		this.frame = new JFrame();
 		this.imgPanel = new PImagePanel(img);
 		this.listener = listener;
 	}
@@ -82,8 +99,8 @@ public class PRenderer {
 	 * Adds a worker to the list of processes to kill when closing the window.
 	 * @param worker the worker to be killed when closing the window
 	 */
-	public void terminateOnClose(PUpdateWorker worker) {
-		PUpdateWorker[] temp = new PUpdateWorker[workersToKill.length + 1];
+	public void terminateOnClose(PStoppable worker) {
+		PStoppable[] temp = new PStoppable[workersToKill.length + 1];
 		for (int i = 0; i < workersToKill.length; i++) {
 			temp[i] = workersToKill[i];
 		}
@@ -119,6 +136,37 @@ public class PRenderer {
 
 	}
 
+	/**
+	 * Returns the pixels backing the rendered image.
+	 * Pixels are stored row by row from the top left of the screen as 
+	 * {@link java.awt.image.BufferedImage#TYPE_INT_RGB} values, so the pixel at 
+	 * (x, y) is at index {@code y * width + x}. Writes to this array are shown 
+	 * the next time the window is refreshed.
+	 * @return the backing pixel array of the rendered image
+	 */
+	public int[] getPixels() {
+		return pixels;
+
+	}
+
+	/**
+	 * Returns the width of the rendered image in pixels.
+	 * @return the width of the image
+	 */
+	public int getWidth() {
+		return width;
+
+	}
+
+	/**
+	 * Returns the height of the rendered image in pixels.
+	 * @return the height of the image
+	 */
+	public int getHeight() {
+		return height;
+
+	}
+
 	/**
 	 * Closes the window.
 	 */
@@ -136,6 +184,76 @@ public class PRenderer {
 		frame.repaint();
 	}
 
+	/**
+	 * Publishes the frame that has been rendered and refreshes the window.
+	 * When triple buffering is enabled, the rendered frame is swapped to the 
+	 * window without waiting for it to be painted and rendering continues in 
+	 * a different image; any references to the old pixel array must be 
+	 * refreshed through {@link #getPixels()}. Otherwise this is the same as 
+	 * {@link #repaint()}.
+	 * @see #enableTripleBuffering()
+	 */
+	public void present() {
+		if (buffers != null) {
+			buffers.publish();
+			img = buffers.getBackImage();
+			pixels = buffers.getBackPixels();
+		}
+		frame.repaint();
+	}
+
+	/**
+	 * Renders into a set of triple buffered images instead of a single image.
+	 * Rendering and presenting of frames then happen independently, so frames 
+	 * do not tear and rendering never waits for the window to be painted. The 
+	 * contents of each frame are not kept after it is presented, so this should 
+	 * only be used when every frame is fully redrawn.
+	 * @see PTripleBuffer
+	 * @see #present()
+	 */
+	public void enableTripleBuffering() {
+		buffers = new PTripleBuffer(width, height);
+		img = buffers.getBackImage();
+		pixels = buffers.getBackPixels();
+		((PImagePanel) imgPanel).setBuffers(buffers);
+	}
+
+	/**
+	 * Starts or stops counting how many times each pixel is written.
+	 * Enabling resets every count to 0. Pixels, columns and rows are counted, 
+	 * lines, tiles and text are not, so clearing the screen with a tile does 
+	 * not add to the counts. While disabled the only cost is a null check 
+	 * per write call.
+	 * @param enabled {@code true} to start counting writes, {@code false} to 
+	 * 				  stop
+	 * @see   		  #getWriteCounts()
+	 */
+	public void countWrites(boolean enabled) {
+		if (!enabled) {
+			writeCounts = null;
+			return;
+
+		}
+		if ((writeCounts == null) || (writeCounts.length != width * height)) {
+			writeCounts = new int[width * height];
+		} else {
+			Arrays.fill(writeCounts, 0);
+		}
+	}
+
+	/**
+	 * Returns the amount of times each pixel has been written since counting 
+	 * was enabled.
+	 * Counts are indexed the same as {@link #getPixels()}.
+	 * @return the write count of each pixel, or {@code null} if writes are 
+	 * 		   not being counted
+	 * @see    #countWrites(boolean)
+	 */
+	public int[] getWriteCounts() {
+		return writeCounts;
+
+	}
+
 	/**
 	 * Applies a multiplier to the size of each pixel.
 	 * @param multiplier the multiplier to apply
@@ -190,12 +308,12 @@ public class PRenderer {
 	 * @see   		 PColour
 	 */
 	public void writePixel(PColour colour, int x, int y) {
-		int col = processToInt(colour);
 		if (!inBounds(x, y)) {
 			return;
 
 		}
-		img.setRGB(x, y, col);
+		pixels[y * width + x] = processToInt(colour);
+		if (writeCounts != null) writeCounts[y * width + x]++;
 	}
 
 	/**
@@ -213,11 +331,96 @@ public class PRenderer {
 	 * @see   		 PColour
 	 */
 	public void writeColumn(PColour colour, int x, int bottom, int top) {
-		int columnColour = processToInt(colour);
+		writeColumn(processToInt(colour), x, bottom, top);
+	}
+
+	/**
+	 * Writes a vertical column of pixels of an already converted colour.
+	 * The span is clipped to the screen once, then written straight into the 
+	 * pixel array.
+	 * @param rgb 	 the colour to write as a 
+	 * 				 {@link java.awt.image.BufferedImage#TYPE_INT_RGB} value
+	 * @param x		 the x coordinate (in pixels) to write the column at
+	 * @param bottom the height above the bottom of the screen (in pixels) to 
+	 * 				 start the column
+	 * @param top    the height above the bottom of the screen (in pixels) to 
+	 * 				 end the column
+	 * @see   		 #writeColumn(PColour, int, int, int)
+	 */
+	public void writeColumn(int rgb, int x, int bottom, int top) {
+		if ((x < 0) || (x >= width)) return;
+
 		// image panel pixel indexing starts in the top left so it is filled backwards
-		for (int y = top; y <= bottom; y++) {
-			if (inBounds(x, y)) {
-				img.setRGB(x, y, columnColour);
+		int y0 = Math.max(top, 0);
+		int y1 = Math.min(bottom, height - 1);
+		for (int i = y0 * width + x, end = y1 * width + x; i <= end; i += width) {
+			pixels[i] = rgb;
+		}
+		if (writeCounts != null) countColumn(x, y0, y1);
+	}
+
+	/**
+	 * Writes a vertical column of pixels sampled from a column of texels.
+	 * Texels are stepped through at a constant rate down the column and wrap
+	 * around the texel column, each one is multiplied by a tint colour. The
+	 * span is clipped to the screen once, the texture coordinate is advanced
+	 * past any clipped rows.
+	 * @param texels 	the texels to sample, as packed RGB values
+	 * @param offset 	the index of the first texel of the column to sample
+	 * @param texHeight the amount of texels in the column
+	 * @param tint 	 	the colour to multiply each texel by, as a packed RGB
+	 * 					value
+	 * @param x		 	the x coordinate (in pixels) to write the column at
+	 * @param bottom 	the y coordinate (in pixels, from the top) of the last
+	 * 					row of the column
+	 * @param top    	the y coordinate (in pixels, from the top) of the first
+	 * 					row of the column
+	 * @param v 	 	the texel coordinate at the first row, must not be
+	 * 					negative
+	 * @param vStep 	the amount of texels to advance per row
+	 * @see   			PTexture
+	 */
+	public void writeTexturedColumn(int[] texels, int offset, int texHeight, int tint,
+			int x, int bottom, int top, double v, double vStep) {
+		if ((x < 0) || (x >= width)) return;
+
+		int y0 = Math.max(top, 0);
+		int y1 = Math.min(bottom, height - 1);
+		v += (y0 - top) * vStep;
+		int tr = ((tint >> 16) & 0xff) + 1;
+		int tg = ((tint >> 8) & 0xff) + 1;
+		int tb = (tint & 0xff) + 1;
+		for (int i = y0 * width + x, end = y1 * width + x; i <= end; i += width) {
+			int texel = texels[offset + ((int) v % texHeight)];
+			int r = (((texel >> 16) & 0xff) * tr) >> 8;
+			int g = (((texel >> 8) & 0xff) * tg) >> 8;
+			int b = ((texel & 0xff) * tb) >> 8;
+			pixels[i] = (r << 16) | (g << 8) | b;
+			v += vStep;
+		}
+		if (writeCounts != null) countColumn(x, y0, y1);
+	}
+
+	/**
+	 * Writes a horizontal row of pixels of an already converted colour.
+	 * The span is clipped to the screen once, then filled in the pixel array.
+	 * @param rgb the colour to write as a 
+	 * 			  {@link java.awt.image.BufferedImage#TYPE_INT_RGB} value
+	 * @param y   the y coordinate (in pixels, from the top) of the row
+	 * @param x0  the x coordinate (in pixels) to start the row at (inclusive)
+	 * @param x1  the x coordinate (in pixels) to end the row at (inclusive)
+	 */
+	public void writeRow(int rgb, int y, int x0, int x1) {
+		if ((y < 0) || (y >= height)) return;
+
+		int from = Math.max(x0, 0);
+		int to = Math.min(x1, width - 1);
+		if (from > to) return;
+
+		Arrays.fill(pixels, y * width + from, y * width + to + 1, rgb);
+		if (writeCounts != null) {
+			for (int i = y * width + from, end = y * width + to; i <= end; i++) {
+				writeCounts[i]++;
 			}
 		}
 	}
@@ -268,7 +471,7 @@ public class PRenderer {
 		boolean doDraw = true;
 		int counter = 0;
 		for (int x = x0; x < x1; x++) {
-			if (doDraw && inBounds(x, y)) img.setRGB(x, y, lineColour);
+			if (doDraw && inBounds(x, y)) pixels[y * width + x] = lineColour;
 			if (error > 0) {
 				y += yIncrement;
 				error += 2 * (dy - dx);
@@ -295,7 +498,7 @@ public class PRenderer {
 		boolean doDraw = true;
 		int counter = 0;
 		for (int y = y0; y < y1; y++) {
-			if (doDraw && inBounds(x, y)) img.setRGB(x, y, lineColour);
+			if (doDraw && inBounds(x, y)) pixels[y * width + x] = lineColour;
 			if (error > 0) {
 				x += xIncrement;
 				error += 2 * (dx - dy);
@@ -323,14 +526,13 @@ public class PRenderer {
 	 */
 	public void fillTile(PColour colour, int width, int height, int x, int y) {
 		int tileColour = processToInt(colour);
-		for (int j = y; j < y + height; j++) {
-			for (int i = x; i < x + width; i++) {
-				if (!inBounds(i, j)) {
-					continue;
+		if ((x <= 0) && (y <= 0) && (x + width >= this.width) && (y + height >= this.height)) {
+			Arrays.fill(pixels, tileColour);
+			return;
 
-				}
-				img.setRGB(i, j, tileColour);
-			}
+		}
+		for (int j = y; j < y + height; j++) {
+			writeRow(tileColour, j, x, x + width - 1);
 		}
 	}
 
@@ -344,22 +546,27 @@ public class PRenderer {
 		img.getGraphics().drawString(text, x, y);
 	}
 
+	/**
+	 * Counts a write to each pixel in a clipped column.
+	 * @param x  the x coordinate of the column
+	 * @param y0 the first row written, from the top
+	 * @param y1 the last row written, from the top
+	 */
+	private void countColumn(int x, int y0, int y1) {
+		for (int i = y0 * width + x, end = y1 * width + x; i <= end; i += width) {
+			writeCounts[i]++;
+		}
+	}
+
 	/**
 	 * Converts a colour from linear colour space to gamme space.
+	 * Uses the colour's cached conversion, so repeated writes of the same 
+	 * colour do not redo the conversion.
 	 * @param c the colour to convert
-	 * @see   PColour
+	 * @see   PColour#toRGB()
 	 */
 	protected int processToInt(PColour c) {
-		// convert from linear to gamma space
-		double r = c.r() > 0 ? Math.sqrt(c.r()) : 0.0;
-		double g = c.g() > 0 ? Math.sqrt(c.g()) : 0.0;
-		double b = c.b() > 0 ? Math.sqrt(c.b()) : 0.0;
-		// normalize and round
-		int rComponent = (int) Math.min(r * 255, 255);
-		int gComponent = (int) Math.min(g * 255, 255);
-		int bComponent = (int) Math.min(b * 255, 255);
-		// convert to BufferedImage.TYPE_INT_RGB
-		return (rComponent << 16) | (gComponent << 8) | (bComponent);
+		return c.toRGB();
 
 	}
 
@@ -0,0 +1,178 @@
+package com.ang.peLib.graphics;
+
+import java.awt.image.BufferedImage;
+
+/**
+ * Decoded image used to texture surfaces, stored as a chain of mip levels.
+ * Texels are packed {@link java.awt.image.BufferedImage#TYPE_INT_RGB} values
+ * in gamma space, stored column by column so that the texels of a vertical
+ * wall column are next to each other in memory. The texel at (u, v) of a
+ * level is at index {@code u * height + v}.
+ * <p>
+ * Level 0 is the full size image, each following level halves the size of
+ * the last (rounding up) by averaging blocks of texels, down to a single
+ * texel. Drawing from the level that best matches the on screen size of the
+ * surface avoids both aliasing and cache misses for distant surfaces.
+ * @see PTextureStore
+ */
+public class PTexture {
+	private final String name;
+	private final int[][] levels;
+	private final int[] widths;
+	private final int[] heights;
+	private final long byteSize;
+
+	/**
+	 * Constructs a texture from a decoded image, building every mip level.
+	 * @param name  the name of the texture
+	 * @param image the image to copy the texels from
+	 * @see   		java.awt.image.BufferedImage
+	 */
+	public PTexture(String name, BufferedImage image) {
+		this(name, image.getWidth(), image.getHeight(),
+				image.getRGB(0, 0, image.getWidth(), image.getHeight(), null, 0,
+				image.getWidth()));
+	}
+
+	/**
+	 * Constructs a texture from packed pixels, building every mip level.
+	 * @param name   the name of the texture
+	 * @param width  the width of the image in pixels
+	 * @param height the height of the image in pixels
+	 * @param rgb 	 the pixels of the image row by row from the top left, as
+	 * 				 packed RGB values
+	 */
+	public PTexture(String name, int width, int height, int[] rgb) {
+		this.name = name;
+		int levelCount = 1;
+		for (int w = width, h = height; (w > 1) || (h > 1); levelCount++) {
+			w = (w + 1) / 2;
+			h = (h + 1) / 2;
+		}
+		levels = new int[levelCount][];
+		widths = new int[levelCount];
+		heights = new int[levelCount];
+		int[] base = new int[width * height];
+		for (int y = 0; y < height; y++) {
+			for (int x = 0; x < width; x++) {
+				base[x * height + y] = rgb[y * width + x] & 0xffffff;
+			}
+		}
+		levels[0] = base;
+		widths[0] = width;
+		heights[0] = height;
+		long bytes = (long) base.length * Integer.BYTES;
+		for (int i = 1; i < levelCount; i++) {
+			levels[i] = downsample(levels[i - 1], widths[i - 1], heights[i - 1]);
+			widths[i] = (widths[i - 1] + 1) / 2;
+			heights[i] = (heights[i - 1] + 1) / 2;
+			bytes += (long) levels[i].length * Integer.BYTES;
+		}
+		byteSize = bytes;
+	}
+
+	/**
+	 * Builds the next mip level by averaging 2x2 blocks of texels.
+	 * Odd sizes repeat the last row or column of the level.
+	 * @param  src    the texels of the level to downsample, column major
+	 * @param  width  the width of the level
+	 * @param  height the height of the level
+	 * @return 		  the texels of the next level, column major
+	 */
+	private static int[] downsample(int[] src, int width, int height) {
+		int w = (width + 1) / 2;
+		int h = (height + 1) / 2;
+		int[] out = new int[w * h];
+		for (int x = 0; x < w; x++) {
+			int x0 = 2 * x;
+			int x1 = Math.min(x0 + 1, width - 1);
+			for (int y = 0; y < h; y++) {
+				int y0 = 2 * y;
+				int y1 = Math.min(y0 + 1, height - 1);
+				int a = src[x0 * height + y0];
+				int b = src[x0 * height + y1];
+				int c = src[x1 * height + y0];
+				int d = src[x1 * height + y1];
+				int r = (((a >> 16) & 0xff) + ((b >> 16) & 0xff) + ((c >> 16) & 0xff)
+						+ ((d >> 16) & 0xff) + 2) >> 2;
+				int g = (((a >> 8) & 0xff) + ((b >> 8) & 0xff) + ((c >> 8) & 0xff)
+						+ ((d >> 8) & 0xff) + 2) >> 2;
+				int bl = ((a & 0xff) + (b & 0xff) + (c & 0xff) + (d & 0xff) + 2) >> 2;
+				out[x * h + y] = (r << 16) | (g << 8) | bl;
+			}
+		}
+		return out;
+
+	}
+
+	/**
+	 * Returns the name of the texture.
+	 * @return the name of the texture
+	 */
+	public String getName() {
+		return name;
+
+	}
+
+	/**
+	 * Returns the amount of mip levels in the texture.
+	 * @return the amount of mip levels
+	 */
+	public int getLevelCount() {
+		return levels.length;
+
+	}
+
+	/**
+	 * Returns the texels of a mip level, stored column by column.
+	 * @param  level the mip level, 0 being the full size image
+	 * @return 		 the texels of the level
+	 */
+	public int[] getTexels(int level) {
+		return levels[level];
+
+	}
+
+	/**
+	 * Returns the width of a mip level.
+	 * @param  level the mip level, 0 being the full size image
+	 * @return 		 the width of the level in texels
+	 */
+	public int getWidth(int level) {
+		return widths[level];
+
+	}
+
+	/**
+	 * Returns the height of a mip level.
+	 * @param  level the mip level, 0 being the full size image
+	 * @return 		 the height of the level in texels
+	 */
+	public int getHeight(int level) {
+		return heights[level];
+
+	}
+
+	/**
+	 * Returns the memory used by the texels of every mip level.
+	 * @return the size of the texture in bytes
+	 */
+	public long getByteSize() {
+		return byteSize;
+
+	}
+
+	/**
+	 * Selects the mip level to draw a surface from.
+	 * @param  texelsPerPixel the amount of full size texels covered by a
+	 * 						  single screen pixel
+	 * @return 				  the largest level with at least 1 texel per pixel
+	 */
+	public int selectLevel(double texelsPerPixel) {
+		if (!(texelsPerPixel >= 2.0)) return 0;
+
+		int level = Math.getExponent(texelsPerPixel);
+		return Math.min(level, levels.length - 1);
+
+	}
+}
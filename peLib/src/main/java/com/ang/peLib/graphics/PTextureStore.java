@@ -0,0 +1,151 @@
+package com.ang.peLib.graphics;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import javax.imageio.ImageIO;
+
+import com.ang.peLib.exceptions.*;
+import com.ang.peLib.files.PResourceFileReader;
+import com.ang.peLib.resources.*;
+
+/**
+ * Loads textures from sprite resources and caches them within a memory budget.
+ * Each sprite is decoded once into a {@link PTexture} with all of its mip
+ * levels. When the textures held take up more than the budget, the least
+ * recently fetched textures are dropped until they fit again, except for the
+ * texture that was just fetched. The store is safe to use from multiple
+ * threads.
+ * @see PTexture
+ * @see com.ang.peLib.resources.PResourceType#SPRITE
+ */
+public class PTextureStore {
+	private final long budget;
+	private final LinkedHashMap<String, PTexture> textures =
+			new LinkedHashMap<String, PTexture>(16, 0.75f, true);
+	private long bytesUsed = 0;
+
+	/**
+	 * Constructs an empty texture store with a memory budget.
+	 * @param budget the most memory that cached textures should take up,
+	 * 				 in bytes
+	 */
+	public PTextureStore(long budget) {
+		this.budget = budget;
+	}
+
+	/**
+	 * Returns a texture, loading it from the sprite resources if it is not
+	 * already cached.
+	 * @param  name 			  the filename of the sprite resource
+	 * @return 					  the decoded texture
+	 * @throws PResourceException if the resource cannot be found, read or
+	 * 							  decoded as an image
+	 * @see 					  PTexture
+	 */
+	public synchronized PTexture fetch(String name) throws PResourceException {
+		PTexture texture = textures.get(name);
+		if (texture != null) return texture;
+
+		texture = load(name);
+		textures.put(name, texture);
+		bytesUsed += texture.getByteSize();
+		evict(texture);
+		return texture;
+
+	}
+
+	/**
+	 * Adds an already decoded texture to the store under its name.
+	 * Replaces any texture cached under the same name.
+	 * @param texture the texture to add
+	 * @see   		  PTexture
+	 */
+	public synchronized void put(PTexture texture) {
+		PTexture old = textures.put(texture.getName(), texture);
+		if (old != null) bytesUsed -= old.getByteSize();
+
+		bytesUsed += texture.getByteSize();
+		evict(texture);
+	}
+
+	/**
+	 * Returns the memory taken up by the cached textures.
+	 * @return the size of all cached textures in bytes
+	 */
+	public synchronized long getBytesUsed() {
+		return bytesUsed;
+
+	}
+
+	/**
+	 * Returns the memory budget of the store.
+	 * @return the budget in bytes
+	 */
+	public long getBudget() {
+		return budget;
+
+	}
+
+	/**
+	 * Returns the amount of textures cached.
+	 * @return the amount of cached textures
+	 */
+	public synchronized int size() {
+		return textures.size();
+
+	}
+
+	/**
+	 * Removes every texture from the store.
+	 */
+	public synchronized void clear() {
+		textures.clear();
+		bytesUsed = 0;
+	}
+
+	/**
+	 * Drops the least recently used textures until the store fits its budget.
+	 * @param keep the texture to never drop
+	 */
+	private void evict(PTexture keep) {
+		Iterator<Map.Entry<String, PTexture>> it = textures.entrySet().iterator();
+		while ((bytesUsed > budget) && it.hasNext()) {
+			PTexture texture = it.next().getValue();
+			if (texture == keep) continue;
+
+			bytesUsed -= texture.getByteSize();
+			it.remove();
+		}
+	}
+
+	/**
+	 * Reads and decodes a sprite resource.
+	 * @param  name 			  the filename of the sprite resource
+	 * @return 					  the decoded texture
+	 * @throws PResourceException if the resource cannot be found, read or
+	 * 							  decoded as an image
+	 */
+	private PTexture load(String name) throws PResourceException {
+		PResourceFileReader reader = new PResourceFileReader();
+		byte[] bytes = reader.readFileAsBytes(PResourceType.SPRITE, name);
+		BufferedImage image;
+		try {
+			image = ImageIO.read(new ByteArrayInputStream(bytes));
+		} catch (IOException e) {
+			throw new PResourceException(PResourceManager.fetch(PResourceType.SPRITE, name),
+					PResourceExceptionType.READ_FAIL);
+
+		}
+		if (image == null) {
+			throw new PResourceException(PResourceManager.fetch(PResourceType.SPRITE, name),
+					PResourceExceptionType.INVALID);
+
+		}
+		return new PTexture(name, image);
+
+	}
+}
@@ -0,0 +1,80 @@
+package com.ang.peLib.graphics;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Lock-free triple buffered set of images for passing frames between threads.
+ * One thread renders into the back image and publishes it when a frame is
+ * complete, while another thread (the Swing EDT) presents the most recently
+ * published front image. The 2 threads only ever exchange images through a
+ * single atomic swap, so a slow present never blocks rendering of the next
+ * frame and a frame is never shown while it is still being rendered.
+ */
+public class PTripleBuffer {
+	private final static int INDEX_MASK = 3;
+	private final static int FRESH = 4; // set when the ready image has not been presented
+	private BufferedImage[] images = new BufferedImage[3];
+	private int[][] pixels = new int[3][];
+	private AtomicInteger ready = new AtomicInteger(2);
+	private int back = 0; // only used by the rendering thread
+	private int front = 1; // only used by the presenting thread
+
+	/**
+	 * Constructs a new set of 3 images.
+	 * @param width  the width of each image in pixels
+	 * @param height the height of each image in pixels
+	 */
+	public PTripleBuffer(int width, int height) {
+		for (int i = 0; i < images.length; i++) {
+			images[i] = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+			pixels[i] = ((DataBufferInt) images[i].getRaster().getDataBuffer()).getData();
+		}
+	}
+
+	/**
+	 * Returns the image that is currently being rendered into.
+	 * Should only be used by the rendering thread.
+	 * @return the back image
+	 */
+	public BufferedImage getBackImage() {
+		return images[back];
+
+	}
+
+	/**
+	 * Returns the pixels of the image that is currently being rendered into.
+	 * Should only be used by the rendering thread.
+	 * @return the backing pixel array of the back image
+	 * @see    PRenderer#getPixels()
+	 */
+	public int[] getBackPixels() {
+		return pixels[back];
+
+	}
+
+	/**
+	 * Publishes the back image as the newest complete frame.
+	 * The rendering thread is given the previously ready image to render
+	 * the next frame into. Should only be used by the rendering thread.
+	 */
+	public void publish() {
+		back = ready.getAndSet(back | FRESH) & INDEX_MASK;
+	}
+
+	/**
+	 * Returns the newest complete frame for presenting.
+	 * If a new frame has been published since the last call it is swapped in,
+	 * otherwise the same image is returned again. Should only be used by the
+	 * presenting thread.
+	 * @return the front image
+	 */
+	public BufferedImage acquireFront() {
+		if ((ready.get() & FRESH) != 0) {
+			front = ready.getAndSet(front) & INDEX_MASK;
+		}
+		return images[front];
+
+	}
+}
@@ -0,0 +1,304 @@
+package com.ang.peLib.graphics;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Gathers the visible parts of floors and ceilings into visplanes and draws
+ * them as horizontal spans.
+ * <p>
+ * A visplane is a single flat surface, the floor or ceiling of one sector,
+ * holding at most one vertical run of visible pixels per screen column.
+ * Columns are gathered front to back: every wall and flat marks the rows it
+ * covers, and a flat only adds the rows not already covered by something
+ * nearer, so the runs in the visplanes never overlap. Once every column has
+ * been gathered the visplanes are converted to horizontal spans and drawn
+ * row by row. Every pixel in a span lies on the same plane at the same
+ * screen row, so its distance from the camera is constant along the span.
+ * <p>
+ * The uncovered rows of a column are also kept as an open range from the 
+ * first to the last uncovered row, like Doom's ceiling and floor clips. Once 
+ * the range is empty the column is closed and nothing further back in it 
+ * can be seen.
+ * <p>
+ * Visplanes are pooled and reused between frames. An instance must only be
+ * used by one thread at a time, and columns must be gathered in increasing
+ * x order.
+ * @see PRenderer#writeRow(int, int, int, int)
+ */
+public class PVisplanes {
+	private final int width;
+	private final int height;
+	private final BitSet coverage;
+	private final int[] spanStart;
+	private int[][] tops = new int[0][];
+	private int[][] bottoms = new int[0][];
+	private int[] minX = new int[0];
+	private int[] maxX = new int[0];
+	private int[] colours = new int[0];
+	private int[] keys = new int[0];
+	private int[] keyPlanes = new int[0];
+	private int planeCount = 0;
+	private int x = -1;
+	// smallest range of rows holding every uncovered row of the column
+	private int openTop;
+	private int openBottom;
+
+	/**
+	 * Constructs a new set of visplanes for a screen size.
+	 * @param width  the width of the screen in pixels
+	 * @param height the height of the screen in pixels
+	 */
+	public PVisplanes(int width, int height) {
+		this.width = width;
+		this.height = height;
+		coverage = new BitSet(height);
+		spanStart = new int[height];
+	}
+
+	/**
+	 * Starts a new frame, releasing the visplanes of the last frame.
+	 * @param sectorCount the amount of sectors in the world being drawn
+	 */
+	public void begin(int sectorCount) {
+		if (keyPlanes.length < sectorCount * 2) {
+			keyPlanes = new int[sectorCount * 2];
+			Arrays.fill(keyPlanes, -1);
+		} else {
+			for (int i = 0; i < planeCount; i++) {
+				keyPlanes[keys[i]] = -1;
+			}
+		}
+		planeCount = 0;
+		x = -1;
+	}
+
+	/**
+	 * Starts gathering a new screen column, with no rows covered.
+	 * @param x the screen space x coordinate of the column
+	 */
+	public void beginColumn(int x) {
+		this.x = x;
+		coverage.clear();
+		openTop = 0;
+		openBottom = height - 1;
+	}
+
+	/**
+	 * Marks rows of the current column as covered by a wall.
+	 * @param top    the first row (from the top of the screen) covered
+	 * @param bottom the last row (from the top of the screen) covered
+	 */
+	public void cover(int top, int bottom) {
+		top = Math.max(top, 0);
+		bottom = Math.min(bottom, height - 1);
+		if (top > bottom) return;
+
+		markCovered(top, bottom);
+	}
+
+	/**
+	 * Checks if every row of the current column has been covered.
+	 * @return {@code true} if the column is closed, else {@code false}
+	 */
+	public boolean isColumnClosed() {
+		return openTop > openBottom;
+
+	}
+
+	/**
+	 * Returns the first row of the current column that is not covered.
+	 * @return the top of the open range of the column
+	 */
+	public int getOpenTop() {
+		return openTop;
+
+	}
+
+	/**
+	 * Returns the last row of the current column that is not covered.
+	 * @return the bottom of the open range of the column
+	 */
+	public int getOpenBottom() {
+		return openBottom;
+
+	}
+
+	/**
+	 * Finds the first row of the current column at or below a row that is 
+	 * not covered.
+	 * @param  y the row (from the top of the screen) to search from
+	 * @return 	 the first uncovered row, or the screen height if there is none
+	 */
+	public int nextOpenRow(int y) {
+		int open = coverage.nextClearBit(Math.max(y, openTop));
+		return (open > openBottom) ? height : open;
+
+	}
+
+	/**
+	 * Finds the first row of the current column at or below a row that is 
+	 * covered.
+	 * @param  y the row (from the top of the screen) to search from
+	 * @return 	 the first covered row, or the screen height if there is none
+	 */
+	public int nextCoveredRow(int y) {
+		int covered = coverage.nextSetBit(y);
+		return (covered < 0) ? height : covered;
+
+	}
+
+	/**
+	 * Adds a floor or ceiling to the current column.
+	 * Only the rows not covered by anything added earlier in the column are
+	 * kept, those rows are then marked as covered.
+	 * @param sectorIndex the index of the sector the flat belongs to
+	 * @param ceiling 	  {@code true} for the ceiling, {@code false} for the
+	 * 					  floor
+	 * @param rgb 		  the colour to draw the flat in
+	 * @param top    	  the first row (from the top of the screen) of the flat
+	 * @param bottom 	  the last row (from the top of the screen) of the flat
+	 */
+	public void addFlat(int sectorIndex, boolean ceiling, int rgb, int top, int bottom) {
+		top = Math.max(top, 0);
+		bottom = Math.min(bottom, height - 1);
+		if ((top > bottom) || (top > openBottom) || (bottom < openTop)) return;
+
+		int key = (sectorIndex << 1) | (ceiling ? 1 : 0);
+		int y = coverage.nextClearBit(Math.max(top, openTop));
+		while (y <= bottom) {
+			int end = coverage.nextSetBit(y);
+			if ((end < 0) || (end > bottom + 1)) end = bottom + 1;
+			addRun(key, rgb, y, end - 1);
+			y = coverage.nextClearBit(end);
+		}
+		markCovered(top, bottom);
+	}
+
+	/**
+	 * Returns the amount of visplanes gathered this frame.
+	 * @return the amount of visplanes
+	 */
+	public int getPlaneCount() {
+		return planeCount;
+
+	}
+
+	/**
+	 * Draws every visplane gathered this frame as horizontal spans.
+	 * @param renderer the renderer to draw to
+	 * @see   		   PRenderer#writeRow(int, int, int, int)
+	 */
+	public void drawSpans(PRenderer renderer) {
+		for (int p = 0; p < planeCount; p++) {
+			int[] top = tops[p];
+			int[] bottom = bottoms[p];
+			int rgb = colours[p];
+			int t1 = height;
+			int b1 = -1;
+			for (int px = minX[p]; px <= maxX[p] + 1; px++) {
+				int t2 = height;
+				int b2 = -1;
+				if (px <= maxX[p]) {
+					t2 = top[px];
+					b2 = bottom[px];
+				}
+				// close the rows the plane left, open the rows it entered
+				while ((t1 < t2) && (t1 <= b1)) {
+					renderer.writeRow(rgb, t1, spanStart[t1], px - 1);
+					t1++;
+				}
+				while ((b1 > b2) && (b1 >= t1)) {
+					renderer.writeRow(rgb, b1, spanStart[b1], px - 1);
+					b1--;
+				}
+				while ((t2 < t1) && (t2 <= b2)) {
+					spanStart[t2] = px;
+					t2++;
+				}
+				while ((b2 > b1) && (b2 >= t2)) {
+					spanStart[b2] = px;
+					b2--;
+				}
+				t1 = (px <= maxX[p]) ? top[px] : height;
+				b1 = (px <= maxX[p]) ? bottom[px] : -1;
+			}
+		}
+	}
+
+	/**
+	 * Marks rows of the current column as covered and shrinks the open range 
+	 * to fit the rows left uncovered.
+	 * @param top    the first row covered, on screen
+	 * @param bottom the last row covered, on screen
+	 */
+	private void markCovered(int top, int bottom) {
+		coverage.set(top, bottom + 1);
+		if ((top <= openTop) && (bottom >= openTop)) {
+			openTop = coverage.nextClearBit(openTop);
+		}
+		if ((bottom >= openBottom) && (top <= openBottom)) {
+			openBottom = coverage.previousClearBit(openBottom);
+		}
+	}
+
+	/**
+	 * Adds a run of visible rows in the current column to the visplane for a
+	 * flat, starting a new visplane if the current one cannot hold it.
+	 * @param key 	 the sector index and flat type of the plane
+	 * @param rgb 	 the colour of the plane
+	 * @param top 	 the first row of the run
+	 * @param bottom the last row of the run
+	 */
+	private void addRun(int key, int rgb, int top, int bottom) {
+		int p = keyPlanes[key];
+		if ((p < 0) || (maxX[p] == x) || (colours[p] != rgb)) {
+			p = newPlane(key, rgb);
+			keyPlanes[key] = p;
+		}
+		int[] planeTop = tops[p];
+		int[] planeBottom = bottoms[p];
+		if (minX[p] < 0) {
+			minX[p] = x;
+		} else {
+			// columns skipped since the last run hold nothing
+			for (int i = maxX[p] + 1; i < x; i++) {
+				planeTop[i] = height;
+				planeBottom[i] = -1;
+			}
+		}
+		maxX[p] = x;
+		planeTop[x] = top;
+		planeBottom[x] = bottom;
+	}
+
+	/**
+	 * Takes an empty visplane from the pool, growing the pool if needed.
+	 * @param  key the sector index and flat type of the plane
+	 * @param  rgb the colour of the plane
+	 * @return 	   the index of the new plane
+	 */
+	private int newPlane(int key, int rgb) {
+		if (planeCount == tops.length) {
+			int capacity = Math.max(16, tops.length * 2);
+			int old = tops.length;
+			tops = Arrays.copyOf(tops, capacity);
+			bottoms = Arrays.copyOf(bottoms, capacity);
+			minX = Arrays.copyOf(minX, capacity);
+			maxX = Arrays.copyOf(maxX, capacity);
+			colours = Arrays.copyOf(colours, capacity);
+			keys = Arrays.copyOf(keys, capacity);
+			for (int i = old; i < capacity; i++) {
+				tops[i] = new int[width];
+				bottoms[i] = new int[width];
+			}
+		}
+		int p = planeCount++;
+		minX[p] = -1;
+		maxX[p] = -1;
+		colours[p] = rgb;
+		keys[p] = key;
+		return p;
+
+	}
+}
@@ -0,0 +1,504 @@
+package com.ang.peLib.hittables;
+
+import java.util.Objects;
+
+import com.ang.peLib.graphics.PColour;
+import com.ang.peLib.maths.PVec2;
+
+/**
+ * Flattened, read-only copy of a world laid out for fast intersection tests.
+ * The walls of every sector are copied into contiguous primitive arrays
+ * (one entry per edge), with the walls of each sector stored next to each
+ * other. Ray tests then scan linearly through memory instead of following
+ * references from the world to its sectors, edges and corners.
+ * <p>
+ * The compiled world is a snapshot, it must be recompiled if the sectors in
+ * the source world are changed. Compare {@link #getWorldVersion()} with the 
+ * world's current version to find out if it is out of date. If only the 
+ * heights or textures of sectors have changed, which leaves the geometry 
+ * version the same, {@link #updateAttributes()} copies them again in place.
+ * @see PEdgeKernel
+ * @see PSectorWorld
+ * @see PSector
+ * @see PEdge
+ */
+public class PCompiledWorld {
+	private final static byte FLAG_PORTAL = 1;
+	private final static int SCAN_BLOCK = 256; // edges tested per kernel call when scanning
+	private PSectorWorld world;
+	private long worldVersion;
+	private long geometryVersion;
+	private PEdgeKernel kernel;
+	private int sectorCount;
+	private int edgeCount;
+	// per edge
+	private double[] x0, y0, x1, y1;
+	private double[] ex, ey;
+	private double[] nx, ny;
+	private byte[] flags;
+	private int[] edgeSector;
+	private PColour[] albedo, upperColour, lowerColour;
+	// per sector
+	private double[] floorHeight, ceilingHeight;
+	private String[] wallTexture;
+	private double[] minX, minY, maxX, maxY;
+	private int[] sectorStart; // sectorCount + 1 entries, edges of s are [start[s], start[s + 1])
+
+	/**
+	 * Compiles a world into flat arrays, using the preferred intersection backend.
+	 * @param world the world to compile
+	 * @see   PSectorWorld
+	 * @see   PEdgeKernel#preferred()
+	 */
+	public PCompiledWorld(PSectorWorld world) {
+		this(world, PEdgeKernel.preferred());
+	}
+
+	/**
+	 * Compiles a world into flat arrays, using a given intersection backend.
+	 * @param world  the world to compile
+	 * @param kernel the backend used to test rays against runs of edges
+	 * @see   		 PSectorWorld
+	 * @see   		 PEdgeKernel
+	 */
+	public PCompiledWorld(PSectorWorld world, PEdgeKernel kernel) {
+		this.world = world;
+		this.worldVersion = world.getVersion();
+		this.geometryVersion = world.getGeometryVersion();
+		this.kernel = kernel;
+		PSector[] sectors = world.getSectors();
+		sectorCount = sectors.length;
+		sectorStart = new int[sectorCount + 1];
+		floorHeight = new double[sectorCount];
+		ceilingHeight = new double[sectorCount];
+		wallTexture = new String[sectorCount];
+		minX = new double[sectorCount];
+		minY = new double[sectorCount];
+		maxX = new double[sectorCount];
+		maxY = new double[sectorCount];
+		for (int s = 0; s < sectorCount; s++) {
+			sectorStart[s] = edgeCount;
+			edgeCount += sectors[s].getWalls().length;
+			floorHeight[s] = sectors[s].getFloorHeight();
+			ceilingHeight[s] = sectors[s].getCeilingHeight();
+			wallTexture[s] = sectors[s].getWallTexture();
+			minX[s] = sectors[s].getMinX();
+			minY[s] = sectors[s].getMinY();
+			maxX[s] = sectors[s].getMaxX();
+			maxY[s] = sectors[s].getMaxY();
+		}
+		sectorStart[sectorCount] = edgeCount;
+		x0 = new double[edgeCount];
+		y0 = new double[edgeCount];
+		x1 = new double[edgeCount];
+		y1 = new double[edgeCount];
+		ex = new double[edgeCount];
+		ey = new double[edgeCount];
+		nx = new double[edgeCount];
+		ny = new double[edgeCount];
+		flags = new byte[edgeCount];
+		edgeSector = new int[edgeCount];
+		albedo = new PColour[edgeCount];
+		upperColour = new PColour[edgeCount];
+		lowerColour = new PColour[edgeCount];
+		for (int s = 0; s < sectorCount; s++) {
+			PEdge[] walls = sectors[s].getWalls();
+			for (int i = 0; i < walls.length; i++) {
+				int e = sectorStart[s] + i;
+				PEdge w = walls[i];
+				PVec2 p0 = w.getP0();
+				PVec2 p1 = w.getP1();
+				x0[e] = p0.x();
+				y0[e] = p0.y();
+				x1[e] = p1.x();
+				y1[e] = p1.y();
+				ex[e] = p1.x() - p0.x();
+				ey[e] = p1.y() - p0.y();
+				nx[e] = w.getNormal().x();
+				ny[e] = w.getNormal().y();
+				flags[e] = w.isPortal() ? FLAG_PORTAL : 0;
+				edgeSector[e] = s;
+				albedo[e] = w.getAlbedo();
+				upperColour[e] = w.getUpperColour();
+				lowerColour[e] = w.getLowerColour();
+			}
+		}
+	}
+
+	/**
+	 * Returns the world that was compiled.
+	 * @return the source world
+	 * @see    PSectorWorld
+	 */
+	public PSectorWorld getWorld() {
+		return world;
+
+	}
+
+	/**
+	 * Returns the version of the world when it was compiled.
+	 * @return the compiled version of the source world
+	 * @see    PSectorWorld#getVersion()
+	 */
+	public long getWorldVersion() {
+		return worldVersion;
+
+	}
+
+	/**
+	 * Returns the geometry version of the world when it was compiled.
+	 * @return the compiled geometry version of the source world
+	 * @see    PSectorWorld#getGeometryVersion()
+	 */
+	public long getGeometryVersion() {
+		return geometryVersion;
+
+	}
+
+	/**
+	 * Copies the heights and wall textures of the world's sectors again.
+	 * Used when the world has changed but its geometry has not, so the edges 
+	 * and anything built from them, such as an edge grid or portal graph, 
+	 * stay valid. Queries must not run while the world is being updated.
+	 * @return {@code true} if the wall texture of any sector changed, else 
+	 * 		   {@code false}
+	 * @see    #getGeometryVersion()
+	 */
+	public boolean updateAttributes() {
+		worldVersion = world.getVersion();
+		boolean texturesChanged = false;
+		for (int s = 0; s < sectorCount; s++) {
+			PSector sec = world.getSector(s);
+			floorHeight[s] = sec.getFloorHeight();
+			ceilingHeight[s] = sec.getCeilingHeight();
+			if (!Objects.equals(wallTexture[s], sec.getWallTexture())) {
+				wallTexture[s] = sec.getWallTexture();
+				texturesChanged = true;
+			}
+		}
+		return texturesChanged;
+
+	}
+
+	/**
+	 * Returns the backend used to test rays against runs of edges.
+	 * @return the intersection backend
+	 * @see    PEdgeKernel
+	 */
+	public PEdgeKernel getKernel() {
+		return kernel;
+
+	}
+
+	/**
+	 * Returns the amount of sectors in the compiled world.
+	 * @return the amount of sectors
+	 */
+	public int getSectorCount() {
+		return sectorCount;
+
+	}
+
+	/**
+	 * Returns the total amount of edges in the compiled world.
+	 * @return the amount of edges
+	 */
+	public int getEdgeCount() {
+		return edgeCount;
+
+	}
+
+	/**
+	 * Returns the index of the first edge of a sector.
+	 * The edges of a sector are stored in the same order as its walls.
+	 * @param  sector index of the sector
+	 * @return 		  index of the sector's first edge
+	 */
+	public int getSectorStart(int sector) {
+		return sectorStart[sector];
+
+	}
+
+	/**
+	 * Returns the index after the last edge of a sector.
+	 * @param  sector index of the sector
+	 * @return 		  index after the sector's last edge
+	 */
+	public int getSectorEnd(int sector) {
+		return sectorStart[sector + 1];
+
+	}
+
+	/**
+	 * Returns the index of the sector that an edge belongs to.
+	 * @param  edge index of the edge
+	 * @return 		index of the edge's sector
+	 */
+	public int getEdgeSector(int edge) {
+		return edgeSector[edge];
+
+	}
+
+	/**
+	 * Returns the x coordinate of the first corner of an edge.
+	 * @param  edge index of the edge
+	 * @return      the x coordinate of the first corner
+	 */
+	public double getX0(int edge) {
+		return x0[edge];
+
+	}
+
+	/**
+	 * Returns the y coordinate of the first corner of an edge.
+	 * @param  edge index of the edge
+	 * @return      the y coordinate of the first corner
+	 */
+	public double getY0(int edge) {
+		return y0[edge];
+
+	}
+
+	/**
+	 * Returns the x coordinate of the second corner of an edge.
+	 * @param  edge index of the edge
+	 * @return      the x coordinate of the second corner
+	 */
+	public double getX1(int edge) {
+		return x1[edge];
+
+	}
+
+	/**
+	 * Returns the y coordinate of the second corner of an edge.
+	 * @param  edge index of the edge
+	 * @return      the y coordinate of the second corner
+	 */
+	public double getY1(int edge) {
+		return y1[edge];
+
+	}
+
+	/**
+	 * Checks if an edge is a portal.
+	 * @param  edge index of the edge
+	 * @return      {@code true} if the edge is a portal, else {@code false}
+	 */
+	public boolean isPortal(int edge) {
+		return (flags[edge] & FLAG_PORTAL) != 0;
+
+	}
+
+	/**
+	 * Returns the floor height of a sector.
+	 * @param  sector index of the sector
+	 * @return        the floor height of the sector
+	 */
+	public double getFloorHeight(int sector) {
+		return floorHeight[sector];
+
+	}
+
+	/**
+	 * Returns the ceiling height of a sector.
+	 * @param  sector index of the sector
+	 * @return        the ceiling height of the sector
+	 */
+	public double getCeilingHeight(int sector) {
+		return ceilingHeight[sector];
+
+	}
+
+	/**
+	 * Returns the name of the texture drawn on the walls of a sector.
+	 * @param  sector index of the sector
+	 * @return        the name of the sector's wall texture, or {@code null} 
+	 * 				  if its walls are not textured
+	 * @see           PSector#getWallTexture()
+	 */
+	public String getWallTexture(int sector) {
+		return wallTexture[sector];
+
+	}
+
+	/**
+	 * Returns the x axis of the vector from the first to the second corner 
+	 * of an edge.
+	 * @param  edge index of the edge
+	 * @return      the x axis of the edge's direction
+	 */
+	public double getEx(int edge) {
+		return ex[edge];
+
+	}
+
+	/**
+	 * Returns the y axis of the vector from the first to the second corner 
+	 * of an edge.
+	 * @param  edge index of the edge
+	 * @return      the y axis of the edge's direction
+	 */
+	public double getEy(int edge) {
+		return ey[edge];
+
+	}
+
+	/**
+	 * Returns the smallest x coordinate of a sector's bounding box.
+	 * @param  sector index of the sector
+	 * @return        the minimum x coordinate of the sector
+	 * @see           PSector#getMinX()
+	 */
+	public double getMinX(int sector) {
+		return minX[sector];
+
+	}
+
+	/**
+	 * Returns the smallest y coordinate of a sector's bounding box.
+	 * @param  sector index of the sector
+	 * @return        the minimum y coordinate of the sector
+	 * @see           PSector#getMinY()
+	 */
+	public double getMinY(int sector) {
+		return minY[sector];
+
+	}
+
+	/**
+	 * Returns the largest x coordinate of a sector's bounding box.
+	 * @param  sector index of the sector
+	 * @return        the maximum x coordinate of the sector
+	 * @see           PSector#getMaxX()
+	 */
+	public double getMaxX(int sector) {
+		return maxX[sector];
+
+	}
+
+	/**
+	 * Returns the largest y coordinate of a sector's bounding box.
+	 * @param  sector index of the sector
+	 * @return        the maximum y coordinate of the sector
+	 * @see           PSector#getMaxY()
+	 */
+	public double getMaxY(int sector) {
+		return maxY[sector];
+
+	}
+
+	/**
+	 * Finds the distance along a ray to its intersection with an edge.
+	 * Gives the same result as {@link PEdge#intersect(double, double, double, double)}.
+	 * @param  edge index of the edge to test
+	 * @param  ox 	the x coordinate of the ray's origin
+	 * @param  oy 	the y coordinate of the ray's origin
+	 * @param  dx 	the x axis of the ray's direction
+	 * @param  dy 	the y axis of the ray's direction
+	 * @return    	the distance along the ray to the intersection, or
+	 * 				{@link Double#POSITIVE_INFINITY} if the ray misses the edge
+	 */
+	public double intersect(int edge, double ox, double oy, double dx, double dy) {
+		return PScalarEdgeKernel.intersectOne(x0[edge], y0[edge], ex[edge], ey[edge], 
+				ox, oy, dx, dy);
+
+	}
+
+	/**
+	 * Finds the distance along a ray to its intersection with each edge in a 
+	 * range, using the world's intersection backend.
+	 * @param from index of the first edge to test
+	 * @param to   index after the last edge to test
+	 * @param ox   the x coordinate of the ray's origin
+	 * @param oy   the y coordinate of the ray's origin
+	 * @param dx   the x axis of the ray's direction
+	 * @param dy   the y axis of the ray's direction
+	 * @param tOut array to write the distance for edge {@code from + i} to at 
+	 * 			   index {@code i}
+	 * @see   	   PEdgeKernel
+	 */
+	public void intersect(int from, int to, double ox, double oy, double dx, 
+			double dy, double[] tOut) {
+		kernel.intersect(x0, y0, ex, ey, from, to, ox, oy, dx, dy, tOut);
+	}
+
+	/**
+	 * Records an intersection with an edge into a hit record.
+	 * Sets every field of the record, including the heights and index of the
+	 * edge's sector and the index of the edge.
+	 * @param rec  the record to fill in
+	 * @param edge index of the edge that was hit
+	 * @param t    the distance along the ray to the intersection
+	 * @param dx   the x axis of the ray's direction
+	 * @param dy   the y axis of the ray's direction
+	 * @see   	   PHitRecord
+	 */
+	public void recordHit(PHitRecord rec, int edge, double t, double dx, double dy) {
+		int s = edgeSector[edge];
+		rec.setT(t);
+		rec.setColour(albedo[edge]);
+		rec.setUpperColour(upperColour[edge]);
+		rec.setLowerColour(lowerColour[edge]);
+		rec.setBackface((dx * nx[edge]) + (dy * ny[edge]) >= 0.0);
+		rec.setPortal((flags[edge] & FLAG_PORTAL) != 0);
+		rec.setFloor(floorHeight[s]);
+		rec.setCeiling(ceilingHeight[s]);
+		rec.setSectorIndex(s);
+		rec.setEdgeIndex(edge);
+	}
+
+	/**
+	 * Finds all intersections between a ray and every edge in the world.
+	 * Any previous hits in the list are cleared.
+	 * @param ox   the x coordinate of the ray's origin
+	 * @param oy   the y coordinate of the ray's origin
+	 * @param dx   the x axis of the ray's direction
+	 * @param dy   the y axis of the ray's direction
+	 * @param tMax the maximum distance at which to search for hits
+	 * @param out  the list to write the hits to
+	 * @see		   PHitList
+	 */
+	public void allHits(double ox, double oy, double dx, double dy, double tMax,
+			PHitList out) {
+		out.clear();
+		double[] t = out.distances(SCAN_BLOCK);
+		for (int from = 0; from < edgeCount; from += SCAN_BLOCK) {
+			int to = Math.min(from + SCAN_BLOCK, edgeCount);
+			kernel.intersect(x0, y0, ex, ey, from, to, ox, oy, dx, dy, t);
+			out.countEdgesTested(to - from);
+			for (int e = from; e < to; e++) {
+				if (t[e - from] < tMax) recordHit(out.add(), e, t[e - from], dx, dy);
+			}
+		}
+	}
+
+	/**
+	 * Finds all intersections between a ray and the edges of a subset of sectors.
+	 * Used to only test the sectors that survived culling. Any previous hits 
+	 * in the list are cleared.
+	 * @param ox   		  the x coordinate of the ray's origin
+	 * @param oy   		  the y coordinate of the ray's origin
+	 * @param dx   		  the x axis of the ray's direction
+	 * @param dy   		  the y axis of the ray's direction
+	 * @param tMax 		  the maximum distance at which to search for hits
+	 * @param sectors 	  indices of the sectors to test
+	 * @param sectorCount the amount of indices at the start of the array to use
+	 * @param out  		  the list to write the hits to
+	 * @see		   		  PHitList
+	 */
+	public void allHits(double ox, double oy, double dx, double dy, double tMax,
+			int[] sectors, int sectorCount, PHitList out) {
+		out.clear();
+		for (int i = 0; i < sectorCount; i++) {
+			int start = sectorStart[sectors[i]];
+			int end = sectorStart[sectors[i] + 1];
+			double[] t = out.distances(end - start);
+			kernel.intersect(x0, y0, ex, ey, start, end, ox, oy, dx, dy, t);
+			out.countEdgesTested(end - start);
+			out.countSectorVisited();
+			for (int e = start; e < end; e++) {
+				if (t[e - start] < tMax) recordHit(out.add(), e, t[e - start], dx, dy);
+			}
+		}
+	}
+}
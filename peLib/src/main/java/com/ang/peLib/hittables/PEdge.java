@@ -20,6 +20,8 @@ public class PEdge extends PCopyable {
 	private PColour lowerColour;
 	private boolean portal;
 	private PVec2 normal;
+	// primitive copies of the edge used by the intersection hot path
+	private double x0, y0, ex, ey, nx, ny;
 
 	/**
 	 * Contructs an edge with a colour between 2 points.
@@ -39,6 +41,12 @@ public class PEdge extends PCopyable {
 		double dx = p1.x() - p0.x();
 		double dy = p1.y() - p0.y();
 		this.normal = (new PVec2(dy, -dx)).unitVector();
+		this.x0 = p0.x();
+		this.y0 = p0.y();
+		this.ex = dx;
+		this.ey = dy;
+		this.nx = normal.x();
+		this.ny = normal.y();
 	}
 
 	/**
@@ -144,28 +152,57 @@ public class PEdge extends PCopyable {
 	 * @see					PHitRecord
 	 */
 	public boolean hit(PRay r, PInterval tInterval, PHitRecord rec) {
-		PVec2 v1 = r.getOrigin().sub(p0);
-		PVec2 v2 = p1.sub(p0);
-		PVec2 v3 = new PVec2(-r.getDirection().y(), r.getDirection().x());
-		double t1 = PVec2.cross(v2, v1) / PVec2.dot(v2, v3);
-		double t2 = PVec2.dot(v1, v3) / PVec2.dot(v2, v3);
-		if ((t1 >= 0.0) && (t2 >= 0.0) && (t2 <= 1.0)) {
-			if (t1 < tInterval.getMax()) {
-				tInterval.setMax(t1);
-				rec.setT(t1);
-				rec.setColour(albedo);
-				rec.setUpperColour(upperColour);
-				rec.setLowerColour(lowerColour);
-				rec.setBackface(PVec2.dot(r.getDirection(), normal) >= 0.0);
-				rec.setPortal(portal);
-				return true;
-
-			}
+		PVec2 o = r.getOrigin();
+		PVec2 d = r.getDirection();
+		double t = intersect(o.x(), o.y(), d.x(), d.y());
+		if (t < tInterval.getMax()) {
+			tInterval.setMax(t);
+			recordHit(rec, t, d.x(), d.y());
+			return true;
+
 		}
 		return false;
 
 	}
 
+	/**
+	 * Finds the distance along a ray to its intersection with the edge.
+	 * Takes the ray as primitives and does not allocate, so it can be used in 
+	 * the rendering hot path.
+	 * @param  ox the x coordinate of the ray's origin
+	 * @param  oy the y coordinate of the ray's origin
+	 * @param  dx the x axis of the ray's direction
+	 * @param  dy the y axis of the ray's direction
+	 * @return    the distance along the ray (in multiples of its direction) 
+	 * 			  to the intersection, or {@link Double#POSITIVE_INFINITY} if 
+	 * 			  the ray misses the edge
+	 */
+	public double intersect(double ox, double oy, double dx, double dy) {
+		return PScalarEdgeKernel.intersectOne(x0, y0, ex, ey, ox, oy, dx, dy);
+
+	}
+
+	/**
+	 * Records an intersection with this edge into a hit record.
+	 * Sets the distance, colours, portal status and facing of the hit. The 
+	 * sector specific fields of the record are left unchanged, and the edge 
+	 * index is cleared as this edge is not part of a compiled world.
+	 * @param rec the record to fill in
+	 * @param t   the distance along the ray to the intersection
+	 * @param dx  the x axis of the ray's direction
+	 * @param dy  the y axis of the ray's direction
+	 * @see   	  PHitRecord
+	 */
+	public void recordHit(PHitRecord rec, double t, double dx, double dy) {
+		rec.setT(t);
+		rec.setColour(albedo);
+		rec.setUpperColour(upperColour);
+		rec.setLowerColour(lowerColour);
+		rec.setBackface((dx * nx) + (dy * ny) >= 0.0);
+		rec.setPortal(portal);
+		rec.setEdgeIndex(-1);
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
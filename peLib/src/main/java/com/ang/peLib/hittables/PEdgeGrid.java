@@ -0,0 +1,324 @@
+package com.ang.peLib.hittables;
+
+import java.util.Arrays;
+
+/**
+ * Uniform grid over the edges of a compiled world used to speed up ray queries.
+ * The bounds of the world are split into square cells and each cell lists the
+ * edges passing through it. A ray walks the grid cell by cell (a 2D DDA) and
+ * only tests the edges in the cells that it passes through, so rays through
+ * open areas test far fewer edges than a scan of the whole world. Edges that
+ * span several cells are only tested once per query.
+ * <p>
+ * The grid is a snapshot of the compiled world it was built from.
+ * @see PCompiledWorld
+ * @see PHitList
+ */
+public class PEdgeGrid {
+	private final static double TARGET_EDGES_PER_CELL = 2.0;
+	private final static int MAX_CELLS = 1 << 20;
+	private final static double CELL_PADDING = 1.0E-6; // fraction of a cell
+	private PCompiledWorld world;
+	private double minX, minY;
+	private double cellSize;
+	private int cellsX, cellsY;
+	private int[] cellStart; // cellsX * cellsY + 1 entries
+	private int[] cellEdges;
+
+	/**
+	 * Constructs a new grid with a cell size chosen from the density of edges.
+	 * @param world the compiled world to index
+	 * @see   PCompiledWorld
+	 */
+	public PEdgeGrid(PCompiledWorld world) {
+		this(world, 0.0);
+	}
+
+	/**
+	 * Constructs a new grid with a given cell size.
+	 * @param world    the compiled world to index
+	 * @param cellSize the side length of each cell, if not positive a size is
+	 * 				   chosen from the density of edges
+	 * @see   		   PCompiledWorld
+	 */
+	public PEdgeGrid(PCompiledWorld world, double cellSize) {
+		this.world = world;
+		int edgeCount = world.getEdgeCount();
+		double maxX, maxY;
+		if (edgeCount == 0) {
+			minX = 0.0;
+			minY = 0.0;
+			maxX = 1.0;
+			maxY = 1.0;
+		} else {
+			minX = Double.POSITIVE_INFINITY;
+			minY = Double.POSITIVE_INFINITY;
+			maxX = Double.NEGATIVE_INFINITY;
+			maxY = Double.NEGATIVE_INFINITY;
+			for (int e = 0; e < edgeCount; e++) {
+				minX = Math.min(minX, Math.min(world.getX0(e), world.getX1(e)));
+				minY = Math.min(minY, Math.min(world.getY0(e), world.getY1(e)));
+				maxX = Math.max(maxX, Math.max(world.getX0(e), world.getX1(e)));
+				maxY = Math.max(maxY, Math.max(world.getY0(e), world.getY1(e)));
+			}
+		}
+		double width = Math.max(maxX - minX, 1.0E-9);
+		double height = Math.max(maxY - minY, 1.0E-9);
+		if (!(cellSize > 0.0)) {
+			double cells = Math.max(1.0, edgeCount / TARGET_EDGES_PER_CELL);
+			cellSize = Math.sqrt((width * height) / cells);
+		}
+		cellSize = Math.max(cellSize, Math.sqrt((width * height) / MAX_CELLS));
+		cellSize = Math.max(cellSize, Math.max(width, height) / MAX_CELLS);
+		this.cellSize = cellSize;
+		// pad the bounds so rays running along the outermost walls are not clipped
+		double pad = cellSize * CELL_PADDING;
+		minX -= pad;
+		minY -= pad;
+		cellsX = Math.max(1, (int) Math.ceil((width + 2.0 * pad) / cellSize));
+		cellsY = Math.max(1, (int) Math.ceil((height + 2.0 * pad) / cellSize));
+		build();
+	}
+
+	/**
+	 * Returns the compiled world that this grid indexes.
+	 * @return the compiled world
+	 * @see    PCompiledWorld
+	 */
+	public PCompiledWorld getWorld() {
+		return world;
+
+	}
+
+	/**
+	 * Returns the side length of each cell.
+	 * @return the cell size
+	 */
+	public double getCellSize() {
+		return cellSize;
+
+	}
+
+	/**
+	 * Finds all intersections between a ray and the edges of the world.
+	 * Gives the same hits as {@link PCompiledWorld#allHits(double, double, double, double, double, PHitList)},
+	 * though not necessarily in the same order. Any previous hits in the list
+	 * are cleared.
+	 * @param ox   the x coordinate of the ray's origin
+	 * @param oy   the y coordinate of the ray's origin
+	 * @param dx   the x axis of the ray's direction
+	 * @param dy   the y axis of the ray's direction
+	 * @param tMax the maximum distance at which to search for hits
+	 * @param out  the list to write the hits to
+	 * @see		   PHitList
+	 */
+	public void allHits(double ox, double oy, double dx, double dy, double tMax,
+			PHitList out) {
+		out.clear();
+		walk(ox, oy, dx, dy, tMax, false, out);
+	}
+
+	/**
+	 * Finds the closest intersection between a ray and the edges of the world.
+	 * The walk stops at the first cell that the closest hit so far lies
+	 * within, so cells further along the ray are never visited. Of edges hit
+	 * at the same distance the first in the world is kept. Any previous
+	 * hits in the list are cleared.
+	 * @param  ox   the x coordinate of the ray's origin
+	 * @param  oy   the y coordinate of the ray's origin
+	 * @param  dx   the x axis of the ray's direction
+	 * @param  dy   the y axis of the ray's direction
+	 * @param  tMax the maximum distance at which to search for hits
+	 * @param  out  the list to write the closest hit to, as its only entry
+	 * @return 	    {@code true} if an intersection is found, else {@code false}
+	 * @see		    PHitList
+	 */
+	public boolean closestHit(double ox, double oy, double dx, double dy, double tMax,
+			PHitList out) {
+		out.clear();
+		int edge = walk(ox, oy, dx, dy, tMax, true, out);
+		if (edge == -1) return false;
+
+		world.recordHit(out.add(), edge, world.intersect(edge, ox, oy, dx, dy), dx, dy);
+		return true;
+
+	}
+
+	/**
+	 * Walks a ray through the grid, testing the edges in each cell it visits.
+	 * @param  ox 		 the x coordinate of the ray's origin
+	 * @param  oy 		 the y coordinate of the ray's origin
+	 * @param  dx 		 the x axis of the ray's direction
+	 * @param  dy 		 the y axis of the ray's direction
+	 * @param  tMax 	 the maximum distance at which to search for hits
+	 * @param  closest 	 {@code true} to only track the closest hit and stop
+	 * 					 early, {@code false} to record every hit
+	 * @param  out 		 the list to record hits to and take scratch state from
+	 * @return 			 index of the closest edge hit when searching for the
+	 * 					 closest hit, else -1
+	 */
+	private int walk(double ox, double oy, double dx, double dy, double tMax,
+			boolean closest, PHitList out) {
+		double maxX = minX + cellsX * cellSize;
+		double maxY = minY + cellsY * cellSize;
+		// clip the ray to the bounds of the grid
+		double tEnter = 0.0;
+		double tLeave = tMax;
+		if (dx != 0.0) {
+			double ta = (minX - ox) / dx;
+			double tb = (maxX - ox) / dx;
+			tEnter = Math.max(tEnter, Math.min(ta, tb));
+			tLeave = Math.min(tLeave, Math.max(ta, tb));
+		} else if ((ox < minX) || (ox > maxX)) {
+			return -1;
+
+		}
+		if (dy != 0.0) {
+			double ta = (minY - oy) / dy;
+			double tb = (maxY - oy) / dy;
+			tEnter = Math.max(tEnter, Math.min(ta, tb));
+			tLeave = Math.min(tLeave, Math.max(ta, tb));
+		} else if ((oy < minY) || (oy > maxY)) {
+			return -1;
+
+		}
+		if (!(tEnter <= tLeave)) return -1;
+
+		int cx = cellIndex(ox + dx * tEnter - minX, cellsX);
+		int cy = cellIndex(oy + dy * tEnter - minY, cellsY);
+		int stepX = (dx > 0.0) ? 1 : -1;
+		int stepY = (dy > 0.0) ? 1 : -1;
+		double tDeltaX = (dx != 0.0) ? cellSize / Math.abs(dx) : Double.POSITIVE_INFINITY;
+		double tDeltaY = (dy != 0.0) ? cellSize / Math.abs(dy) : Double.POSITIVE_INFINITY;
+		double tNextX = (dx != 0.0)
+				? (minX + (cx + ((dx > 0.0) ? 1 : 0)) * cellSize - ox) / dx
+				: Double.POSITIVE_INFINITY;
+		double tNextY = (dy != 0.0)
+				? (minY + (cy + ((dy > 0.0) ? 1 : 0)) * cellSize - oy) / dy
+				: Double.POSITIVE_INFINITY;
+		out.beginEdgeVisit(world.getEdgeCount());
+		double bestT = tMax;
+		int bestEdge = -1;
+		while (true) {
+			int cell = cy * cellsX + cx;
+			for (int i = cellStart[cell]; i < cellStart[cell + 1]; i++) {
+				int e = cellEdges[i];
+				if (!out.visitEdge(e)) continue;
+
+				out.countEdgesTested(1);
+				double t = world.intersect(e, ox, oy, dx, dy);
+				if (closest) {
+					// ties go to the first edge, the same as scanning the world
+					if ((t < bestT) || ((t == bestT) && (e < bestEdge))) {
+						bestT = t;
+						bestEdge = e;
+					}
+				} else if (t < bestT) {
+					world.recordHit(out.add(), e, t, dx, dy);
+				}
+			}
+			double tExit = Math.min(tNextX, tNextY);
+			if (tExit >= bestT) break; // nothing closer or within range further on
+
+			if (tNextX < tNextY) {
+				cx += stepX;
+				if ((cx < 0) || (cx >= cellsX)) break;
+
+				tNextX += tDeltaX;
+			} else {
+				cy += stepY;
+				if ((cy < 0) || (cy >= cellsY)) break;
+
+				tNextY += tDeltaY;
+			}
+		}
+		return bestEdge;
+
+	}
+
+	/**
+	 * Returns the index of the cell containing an offset along one axis.
+	 * @param  offset distance from the minimum of the grid along the axis
+	 * @param  cells  the amount of cells along the axis
+	 * @return 		  the clamped cell index
+	 */
+	private int cellIndex(double offset, int cells) {
+		int i = (int) Math.floor(offset / cellSize);
+		if (i < 0) return 0;
+		if (i >= cells) return cells - 1;
+		return i;
+
+	}
+
+	/**
+	 * Lists every edge in each cell that it passes through.
+	 * Cells are slightly padded so that edges passing exactly through the
+	 * corner of a cell are listed in every cell sharing that corner.
+	 */
+	private void build() {
+		int edgeCount = world.getEdgeCount();
+		int[] counts = new int[cellsX * cellsY + 1];
+		for (int pass = 0; pass < 2; pass++) {
+			if (pass == 1) {
+				cellStart = new int[counts.length];
+				for (int c = 1; c < counts.length; c++) {
+					cellStart[c] = cellStart[c - 1] + counts[c - 1];
+				}
+				cellEdges = new int[cellStart[counts.length - 1]];
+				Arrays.fill(counts, 0);
+			}
+			for (int e = 0; e < edgeCount; e++) {
+				double x0 = world.getX0(e);
+				double y0 = world.getY0(e);
+				double x1 = world.getX1(e);
+				double y1 = world.getY1(e);
+				double pad = cellSize * CELL_PADDING;
+				int cx0 = cellIndex(Math.min(x0, x1) - minX - pad, cellsX);
+				int cx1 = cellIndex(Math.max(x0, x1) - minX + pad, cellsX);
+				int cy0 = cellIndex(Math.min(y0, y1) - minY - pad, cellsY);
+				int cy1 = cellIndex(Math.max(y0, y1) - minY + pad, cellsY);
+				for (int cy = cy0; cy <= cy1; cy++) {
+					for (int cx = cx0; cx <= cx1; cx++) {
+						if (!crossesCell(x0, y0, x1, y1, cx, cy, pad)) continue;
+
+						int cell = cy * cellsX + cx;
+						if (pass == 1) cellEdges[cellStart[cell] + counts[cell]] = e;
+						counts[cell]++;
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Checks if the line through an edge passes through a padded cell.
+	 * Only the line needs testing as the cells tested are already limited
+	 * to the bounding box of the edge.
+	 * @param  x0  the x coordinate of the edge's first corner
+	 * @param  y0  the y coordinate of the edge's first corner
+	 * @param  x1  the x coordinate of the edge's second corner
+	 * @param  y1  the y coordinate of the edge's second corner
+	 * @param  cx  the x index of the cell
+	 * @param  cy  the y index of the cell
+	 * @param  pad the amount to grow the cell by on every side
+	 * @return 	   {@code true} if the corners of the cell are not all on the
+	 * 			   same side of the line
+	 */
+	private boolean crossesCell(double x0, double y0, double x1, double y1,
+			int cx, int cy, double pad) {
+		double ex = x1 - x0;
+		double ey = y1 - y0;
+		double left = minX + cx * cellSize - pad;
+		double right = left + cellSize + 2.0 * pad;
+		double bottom = minY + cy * cellSize - pad;
+		double top = bottom + cellSize + 2.0 * pad;
+		double c0 = ex * (bottom - y0) - ey * (left - x0);
+		double c1 = ex * (bottom - y0) - ey * (right - x0);
+		double c2 = ex * (top - y0) - ey * (left - x0);
+		double c3 = ex * (top - y0) - ey * (right - x0);
+		boolean anyAbove = (c0 >= 0.0) || (c1 >= 0.0) || (c2 >= 0.0) || (c3 >= 0.0);
+		boolean anyBelow = (c0 <= 0.0) || (c1 <= 0.0) || (c2 <= 0.0) || (c3 <= 0.0);
+		return anyAbove && anyBelow;
+
+	}
+}
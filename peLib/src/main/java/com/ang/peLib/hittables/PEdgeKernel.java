@@ -0,0 +1,57 @@
+package com.ang.peLib.hittables;
+
+/**
+ * Backend for intersecting a ray with a run of edges stored in flat arrays.
+ * The scalar backend is always available. A data parallel backend using the
+ * incubating Vector API is used instead when the {@code jdk.incubator.vector}
+ * module has been added to the JVM (with {@code --add-modules}). Both give 
+ * exactly the same distances as {@link PEdge#intersect(double, double, double, double)}.
+ * @see PCompiledWorld
+ */
+public interface PEdgeKernel {
+	/**
+	 * Finds the distance along a ray to its intersection with each edge in a range.
+	 * Edges are given by their first corner and their edge vector.
+	 * @param x0   the x coordinates of the first corners
+	 * @param y0   the y coordinates of the first corners
+	 * @param ex   the x axes of the edge vectors
+	 * @param ey   the y axes of the edge vectors
+	 * @param from index of the first edge to test
+	 * @param to   index after the last edge to test
+	 * @param ox   the x coordinate of the ray's origin
+	 * @param oy   the y coordinate of the ray's origin
+	 * @param dx   the x axis of the ray's direction
+	 * @param dy   the y axis of the ray's direction
+	 * @param tOut array to write the distance for edge {@code from + i} to 
+	 * 			   at index {@code i}, {@link Double#POSITIVE_INFINITY} for 
+	 * 			   edges that are missed
+	 */
+	void intersect(double[] x0, double[] y0, double[] ex, double[] ey, int from, 
+			int to, double ox, double oy, double dx, double dy, double[] tOut);
+
+	/**
+	 * Returns the name of the backend for debugging.
+	 * @return the name of the backend
+	 */
+	String getName();
+
+	/**
+	 * Returns the scalar backend.
+	 * @return the scalar backend
+	 */
+	static PEdgeKernel scalar() {
+		return PScalarEdgeKernel.INSTANCE;
+
+	}
+
+	/**
+	 * Returns the fastest backend available in this JVM.
+	 * The Vector API backend is used if the incubator module is present,
+	 * otherwise the scalar backend is used.
+	 * @return the preferred backend
+	 */
+	static PEdgeKernel preferred() {
+		return PEdgeKernels.PREFERRED;
+
+	}
+}
@@ -0,0 +1,32 @@
+package com.ang.peLib.hittables;
+
+/**
+ * Selects the edge intersection backend for this JVM.
+ * The Vector API backend is only referenced after checking that its module is
+ * in the boot layer, so the library still runs when the module is missing.
+ * @see PEdgeKernel
+ */
+final class PEdgeKernels {
+	private final static String VECTOR_MODULE = "jdk.incubator.vector";
+	final static PEdgeKernel PREFERRED = select();
+
+	private PEdgeKernels() {}
+
+	/**
+	 * Picks the fastest available backend.
+	 * @return the Vector API backend if available, else the scalar backend
+	 */
+	private static PEdgeKernel select() {
+		if (ModuleLayer.boot().findModule(VECTOR_MODULE).isEmpty()) {
+			return PScalarEdgeKernel.INSTANCE;
+
+		}
+		try {
+			return new PVectorEdgeKernel();
+
+		} catch (LinkageError e) {
+			return PScalarEdgeKernel.INSTANCE;
+
+		}
+	}
+}
@@ -0,0 +1,228 @@
+package com.ang.peLib.hittables;
+
+import java.util.Arrays;
+
+/**
+ * Reusable buffer for the hits found by a ray query.
+ * Hit records are pooled and handed out again after {@link #clear()}, so once
+ * the buffer has grown to fit the largest query no more objects are allocated.
+ * The buffer also holds the scratch state used for walking sectors, so a
+ * buffer must only be used by one thread at a time. Queries also count the 
+ * edges they test and the sectors they visit, which can be read back to see 
+ * how much work a query took.
+ * @see PHitRecord
+ * @see PSectorWorld#allHits(double, double, double, double, double, PHitList)
+ * @see PPortalGraph#allHits(double, double, double, double, double, int[], PHitList)
+ */
+public class PHitList {
+	private PHitRecord[] records = new PHitRecord[0];
+	private int size = 0;
+	private int[] sectorStack = new int[0];
+	private int[] visitStamps = new int[0];
+	private int stamp = 0;
+	private double[] distances = new double[0];
+	private int[] edgeStamps = new int[0];
+	private int edgeStamp = 0;
+	private int edgesTested = 0;
+	private int sectorsVisited = 0;
+
+	/**
+	 * Constructs a new hit list with an initial capacity.
+	 * @param capacity the amount of hit records to allocate up front
+	 */
+	public PHitList(int capacity) {
+		grow(capacity);
+	}
+
+	/**
+	 * Removes all hits from the list, keeping the records for reuse.
+	 * The counts of edges tested and sectors visited are reset.
+	 */
+	public void clear() {
+		size = 0;
+		edgesTested = 0;
+		sectorsVisited = 0;
+	}
+
+	/**
+	 * Adds to the amount of edges tested by the query filling this list.
+	 * @param n the amount of edges tested
+	 */
+	public void countEdgesTested(int n) {
+		edgesTested += n;
+	}
+
+	/**
+	 * Adds a sector to the amount of sectors visited by the query filling 
+	 * this list.
+	 */
+	public void countSectorVisited() {
+		sectorsVisited++;
+	}
+
+	/**
+	 * Returns the amount of edges tested against the ray since the list was 
+	 * last cleared.
+	 * @return the amount of edges tested
+	 */
+	public int getEdgesTested() {
+		return edgesTested;
+
+	}
+
+	/**
+	 * Returns the amount of sectors whose edges were tested since the list 
+	 * was last cleared.
+	 * Queries that do not go through the world sector by sector, such as 
+	 * walking the edge grid, do not visit any sectors.
+	 * @return the amount of sectors visited
+	 */
+	public int getSectorsVisited() {
+		return sectorsVisited;
+
+	}
+
+	/**
+	 * Returns the amount of hits in the list.
+	 * @return the amount of hits
+	 */
+	public int size() {
+		return size;
+
+	}
+
+	/**
+	 * Returns the hit at a given index.
+	 * @param  i index of the hit to return
+	 * @return   the hit record at the specified index
+	 * @see      PHitRecord
+	 */
+	public PHitRecord get(int i) {
+		return records[i];
+
+	}
+
+	/**
+	 * Returns the records backing this list.
+	 * Only the first {@link #size()} records hold hits, the rest are spare.
+	 * The records may be reordered in place, for example to sort them.
+	 * @return the array of records backing this list
+	 * @see    PHitRecord
+	 */
+	public PHitRecord[] getRecords() {
+		return records;
+
+	}
+
+	/**
+	 * Appends a hit to the list and returns its record to be filled in.
+	 * The returned record still holds the values of the last hit that used
+	 * it, every field should be set.
+	 * @return the record for the new hit
+	 * @see    PHitRecord
+	 */
+	public PHitRecord add() {
+		if (size == records.length) {
+			grow(Math.max(8, records.length * 2));
+		}
+		return records[size++];
+
+	}
+
+	/**
+	 * Starts a new walk through the sectors of a world.
+	 * @param sectorCount the amount of sectors in the world being walked
+	 */
+	void beginVisit(int sectorCount) {
+		if (visitStamps.length < sectorCount) {
+			visitStamps = new int[sectorCount];
+			sectorStack = new int[sectorCount];
+			stamp = 0;
+		}
+		if (++stamp == Integer.MAX_VALUE) {
+			Arrays.fill(visitStamps, 0);
+			stamp = 1;
+		}
+	}
+
+	/**
+	 * Pushes a sector to be visited if it has not been visited in this walk.
+	 * @param  sectorIndex index of the sector to visit
+	 * @param  head 	   current size of the sector stack
+	 * @return 			   the new size of the sector stack
+	 */
+	int visit(int sectorIndex, int head) {
+		if (visitStamps[sectorIndex] == stamp) return head;
+
+		visitStamps[sectorIndex] = stamp;
+		sectorStack[head] = sectorIndex;
+		return head + 1;
+
+	}
+
+	/**
+	 * Returns a sector from the stack of sectors to visit.
+	 * @param  i index into the stack
+	 * @return   index of the sector at that position in the stack
+	 */
+	int stackAt(int i) {
+		return sectorStack[i];
+
+	}
+
+	/**
+	 * Starts a new query that tests each edge at most once.
+	 * @param edgeCount the amount of edges in the world being queried
+	 * @see   PEdgeGrid
+	 */
+	void beginEdgeVisit(int edgeCount) {
+		if (edgeStamps.length < edgeCount) {
+			edgeStamps = new int[edgeCount];
+			edgeStamp = 0;
+		}
+		if (++edgeStamp == Integer.MAX_VALUE) {
+			Arrays.fill(edgeStamps, 0);
+			edgeStamp = 1;
+		}
+	}
+
+	/**
+	 * Marks an edge as tested in the current query.
+	 * @param  edge index of the edge
+	 * @return 		{@code true} if the edge had not yet been tested, else 
+	 * 				{@code false}
+	 */
+	boolean visitEdge(int edge) {
+		if (edgeStamps[edge] == edgeStamp) return false;
+
+		edgeStamps[edge] = edgeStamp;
+		return true;
+
+	}
+
+	/**
+	 * Returns a scratch array for the distances to a run of edges.
+	 * @param  n the amount of distances needed
+	 * @return   an array with room for at least {@code n} distances
+	 * @see      PEdgeKernel
+	 */
+	double[] distances(int n) {
+		if (distances.length < n) {
+			distances = new double[Math.max(n, distances.length * 2)];
+		}
+		return distances;
+
+	}
+
+	/**
+	 * Grows the pool of records.
+	 * @param capacity the new capacity of the list
+	 */
+	private void grow(int capacity) {
+		PHitRecord[] temp = new PHitRecord[capacity];
+		for (int i = 0; i < capacity; i++) {
+			temp[i] = (i < records.length) ? records[i] : new PHitRecord();
+		}
+		records = temp;
+	}
+}
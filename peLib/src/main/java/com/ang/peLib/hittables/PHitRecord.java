@@ -18,6 +18,7 @@ public class PHitRecord extends PCopyable {
 	private boolean isBackface; // true if this hit is on the inside of a sector
 	private boolean isPortal;
 	private int sectorIndex;
+	private int edgeIndex = -1; // index of the edge in a compiled world, -1 if unknown
 
 	/**
 	 * {@inheritDoc}
@@ -35,6 +36,7 @@ public class PHitRecord extends PCopyable {
 		temp.setBackface(isBackface);
 		temp.setPortal(isPortal);
 		temp.setSectorIndex(sectorIndex);
+		temp.setEdgeIndex(edgeIndex);
 		return temp;
 
 	}
@@ -126,6 +128,17 @@ public class PHitRecord extends PCopyable {
 
 	}
 
+	/**
+	 * Returns the index of the edge that was hit in the compiled world.
+	 * @return index of the edge hit, or -1 if the hit was not found through a 
+	 * 		   compiled world
+	 * @see    com.ang.peLib.hittables.PCompiledWorld
+	 */
+	public int getEdgeIndex() {
+		return edgeIndex;
+
+	}
+
 	/**
 	 * Sets the distance to the hit for this record.
 	 * @param t the distance to the hit
@@ -202,4 +215,13 @@ public class PHitRecord extends PCopyable {
 	public void setSectorIndex(int sectorIndex) {
 		this.sectorIndex = sectorIndex;
 	}
+
+	/**
+	 * Sets the index of the edge that the hit is recorded for.
+	 * @param edgeIndex the index of the edge in the compiled world, or -1
+	 * @see   			com.ang.peLib.hittables.PCompiledWorld
+	 */
+	public void setEdgeIndex(int edgeIndex) {
+		this.edgeIndex = edgeIndex;
+	}
 }
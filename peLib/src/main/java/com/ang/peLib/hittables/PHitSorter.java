@@ -0,0 +1,185 @@
+package com.ang.peLib.hittables;
+
+/**
+ * Sorts hit records by distance using a primitive key and an index permutation.
+ * The distances are copied into a {@code double[]} and only an {@code int[]}
+ * permutation is sorted, the records themselves are moved once at the end
+ * without being copied.
+ * <p>
+ * Neighbouring screen columns usually hit the same walls in the same order, so
+ * the permutation found for the previous list is used as the starting order
+ * for the next list of the same size. The starting order is then finished
+ * with an insertion sort, which is linear on the nearly sorted input this
+ * gives. Large lists that turn out not to be nearly sorted fall back to a
+ * quick sort. A sorter keeps state between calls, so it must only be used
+ * by one thread at a time.
+ * @see PHitList
+ * @see PHitRecord
+ */
+public class PHitSorter {
+	private final static int INSERTION_THRESHOLD = 24;
+	private final static int SHIFT_BUDGET = 8; // shifts allowed per element before falling back
+	private double[] keys = new double[0];
+	private int[] order = new int[0];
+	private int[] prevOrder = new int[0];
+	private int prevSize = -1;
+	private PHitRecord[] temp = new PHitRecord[0];
+
+	/**
+	 * Sorts the hits in a hit list by distance, nearest first.
+	 * Records with equal distances keep their relative order.
+	 * @param hits the list to sort in place
+	 * @see   	   PHitList
+	 */
+	public void sort(PHitList hits) {
+		sort(hits.getRecords(), hits.size());
+	}
+
+	/**
+	 * Sorts the first {@code n} records of an array by distance, nearest first.
+	 * @param arr the array to sort in place
+	 * @param n   the amount of records at the start of the array to sort
+	 */
+	public void sort(PHitRecord[] arr, int n) {
+		if (n < 2) {
+			prevSize = n;
+			return;
+
+		}
+		ensureCapacity(n);
+		for (int i = 0; i < n; i++) {
+			keys[i] = arr[i].getT();
+		}
+		if (n == prevSize) {
+			System.arraycopy(prevOrder, 0, order, 0, n);
+		} else {
+			for (int i = 0; i < n; i++) order[i] = i;
+		}
+		int budget = (n <= INSERTION_THRESHOLD) ? Integer.MAX_VALUE : n * SHIFT_BUDGET;
+		if (!insertionSort(0, n, budget)) {
+			quicksort(0, n - 1);
+			insertionSort(0, n, Integer.MAX_VALUE);
+		}
+		System.arraycopy(order, 0, prevOrder, 0, n);
+		prevSize = n;
+		for (int i = 0; i < n; i++) {
+			temp[i] = arr[order[i]];
+		}
+		System.arraycopy(temp, 0, arr, 0, n);
+	}
+
+	/**
+	 * Performs an insertion sort on part of the permutation.
+	 * Indices with equal keys are ordered by index so the result does not
+	 * depend on the starting order.
+	 * @param  from   first index of the part to sort
+	 * @param  to     index after the last index of the part to sort
+	 * @param  budget maximum amount of shifts to perform before giving up
+	 * @return 		  {@code true} if the part was sorted, {@code false} if
+	 * 				  the budget ran out
+	 */
+	private boolean insertionSort(int from, int to, int budget) {
+		for (int i = from + 1; i < to; i++) {
+			int idx = order[i];
+			double key = keys[idx];
+			int j = i - 1;
+			while ((j >= from) && greater(order[j], key, idx)) {
+				order[j + 1] = order[j];
+				j--;
+				if (--budget < 0) {
+					order[j + 1] = idx;
+					return false;
+
+				}
+			}
+			order[j + 1] = idx;
+		}
+		return true;
+
+	}
+
+	/**
+	 * Performs a quick sort on part of the permutation, leaving small
+	 * partitions for a final insertion sort.
+	 * @param left  first index of the part to sort
+	 * @param right last index of the part to sort
+	 */
+	private void quicksort(int left, int right) {
+		while (right - left > INSERTION_THRESHOLD) {
+			int mid = partition(left, right);
+			if (mid - left < right - mid) {
+				quicksort(left, mid - 1);
+				left = mid + 1;
+			} else {
+				quicksort(mid + 1, right);
+				right = mid - 1;
+			}
+		}
+	}
+
+	/**
+	 * Performs a quick sort partition around the median of 3 keys.
+	 * @param  left  left pointer for the partition
+	 * @param  right right pointer for the partition
+	 * @return 		 midpoint of the partition
+	 */
+	private int partition(int left, int right) {
+		int mid = (left + right) >>> 1;
+		if (greater(order[left], keys[order[mid]], order[mid])) swap(left, mid);
+		if (greater(order[mid], keys[order[right]], order[right])) swap(mid, right);
+		if (greater(order[left], keys[order[mid]], order[mid])) swap(left, mid);
+		swap(mid, right);
+		int pivot = order[right];
+		double pivotKey = keys[pivot];
+		int i = left;
+		for (int j = left; j < right; j++) {
+			if (!greater(order[j], pivotKey, pivot)) {
+				swap(i, j);
+				i++;
+			}
+		}
+		swap(i, right);
+		return i;
+
+	}
+
+	/**
+	 * Checks if the record at an index sorts after a given key.
+	 * @param  idx      index of the record to compare
+	 * @param  key      distance to compare against
+	 * @param  keyIndex index of the record holding the key, used to break ties
+	 * @return 		    {@code true} if the record sorts after the key
+	 */
+	private boolean greater(int idx, double key, int keyIndex) {
+		double k = keys[idx];
+		return (k > key) || ((k == key) && (idx > keyIndex));
+
+	}
+
+	/**
+	 * Swaps 2 entries of the permutation.
+	 * @param i first swap index
+	 * @param j second swap index
+	 */
+	private void swap(int i, int j) {
+		int t = order[i];
+		order[i] = order[j];
+		order[j] = t;
+	}
+
+	/**
+	 * Grows the scratch arrays to fit a list of a given size.
+	 * @param n the size of the list to sort
+	 */
+	private void ensureCapacity(int n) {
+		if (keys.length >= n) return;
+
+		int capacity = Math.max(n, keys.length * 2);
+		keys = new double[capacity];
+		order = new int[capacity];
+		int[] newPrev = new int[capacity];
+		System.arraycopy(prevOrder, 0, newPrev, 0, prevOrder.length);
+		prevOrder = newPrev;
+		temp = new PHitRecord[capacity];
+	}
+}
@@ -0,0 +1,290 @@
+package com.ang.peLib.hittables;
+
+import com.ang.peLib.maths.*;
+import com.ang.peLib.utils.*;
+
+/**
+ * Connectivity graph between the sectors of a world used for portal traversal.
+ * Each portal edge is linked to the sectors that share it, so a ray can start
+ * in the sector containing its origin and only walk into neighbouring sectors
+ * through the portals that it passes through. Sectors that overlap each other
+ * (for example a raised platform inside of a room) are linked separately and
+ * are always visited together.
+ * <p>
+ * The graph is built from a snapshot of the world, it must be rebuilt if the
+ * sectors in the world are changed.
+ * @see PSectorWorld
+ * @see PSector
+ * @see PEdge
+ */
+public class PPortalGraph {
+	private final static double EPSILON = 1.0E-6;
+	private PSectorWorld world;
+	private PCompiledWorld compiled;
+	private PSector[] sectors;
+	private int[][][] portalLinks; // [sector][wall] -> sectors through the portal
+	private int[][] overlapLinks; // [sector] -> sectors overlapping the sector
+
+	/**
+	 * Constructs a new portal graph for a world.
+	 * @param world the world to build the graph for
+	 * @see   PSectorWorld
+	 */
+	public PPortalGraph(PSectorWorld world) {
+		this(new PCompiledWorld(world));
+	}
+
+	/**
+	 * Constructs a new portal graph for an already compiled world.
+	 * The compiled world is used for the intersection tests while traversing.
+	 * @param compiled the compiled world to build the graph for
+	 * @see   PCompiledWorld
+	 */
+	public PPortalGraph(PCompiledWorld compiled) {
+		this.compiled = compiled;
+		this.world = compiled.getWorld();
+		this.sectors = world.getSectors();
+		buildPortalLinks();
+		buildOverlapLinks();
+	}
+
+	/**
+	 * Returns the world that this graph was built for.
+	 * @return the world that this graph was built for
+	 * @see    PSectorWorld
+	 */
+	public PSectorWorld getWorld() {
+		return world;
+
+	}
+
+	/**
+	 * Returns the compiled copy of the world used for traversal.
+	 * @return the compiled world
+	 * @see    PCompiledWorld
+	 */
+	public PCompiledWorld getCompiledWorld() {
+		return compiled;
+
+	}
+
+	/**
+	 * Finds all sectors that contain a given point.
+	 * @param  p the point to search for
+	 * @return   indices of every sector containing the point, empty if the
+	 * 			 point is outside of the world
+	 * @see      com.ang.peLib.maths.PVec2
+	 */
+	public int[] findSectors(PVec2 p) {
+		int[] found = new int[sectors.length];
+		int head = 0;
+		for (int i = 0; i < sectors.length; i++) {
+			if (sectors[i].contains(p)) found[head++] = i;
+		}
+		return PArrays.reduceArray(found, head);
+
+	}
+
+	/**
+	 * Finds all intersections between a ray and the sectors reachable from
+	 * the starting sectors through portals, without allocating.
+	 * Any previous hits in the list are cleared. The list's scratch state is
+	 * used for the traversal, so it must not be shared between threads.
+	 * @param ox		   the x coordinate of the ray's origin
+	 * @param oy		   the y coordinate of the ray's origin
+	 * @param dx		   the x axis of the ray's direction
+	 * @param dy		   the y axis of the ray's direction
+	 * @param tMax		   the maximum distance at which to search for hits
+	 * @param startSectors indices of the sectors containing the ray's origin
+	 * @param out		   the list to write the hits to
+	 * @see				   PHitList
+	 */
+	public void allHits(double ox, double oy, double dx, double dy, double tMax,
+			int[] startSectors, PHitList out) {
+		allHits(ox, oy, dx, dy, tMax, startSectors, null, out);
+	}
+
+	/**
+	 * Finds all intersections between a ray and the visible sectors reachable 
+	 * from the starting sectors through portals, without allocating.
+	 * The walls of sectors marked as not visible (for example by frustum 
+	 * culling) are not tested, so the ray must not cross those sectors.
+	 * @param ox		   the x coordinate of the ray's origin
+	 * @param oy		   the y coordinate of the ray's origin
+	 * @param dx		   the x axis of the ray's direction
+	 * @param dy		   the y axis of the ray's direction
+	 * @param tMax		   the maximum distance at which to search for hits
+	 * @param startSectors indices of the sectors containing the ray's origin
+	 * @param visible	   visibility of each sector, or {@code null} if every 
+	 * 					   sector is visible
+	 * @param out		   the list to write the hits to
+	 * @see				   PHitList
+	 */
+	public void allHits(double ox, double oy, double dx, double dy, double tMax,
+			int[] startSectors, boolean[] visible, PHitList out) {
+		out.clear();
+		out.beginVisit(sectors.length);
+		int stackHead = 0;
+		for (int s : startSectors) stackHead = out.visit(s, stackHead);
+		while (stackHead > 0) {
+			int s = out.stackAt(--stackHead);
+			if ((visible != null) && !visible[s]) {
+				// overlapping sectors are linked transitively, so still follow them
+				for (int n : overlapLinks[s]) stackHead = out.visit(n, stackHead);
+				continue;
+
+			}
+			int start = compiled.getSectorStart(s);
+			int end = compiled.getSectorEnd(s);
+			double[] t = out.distances(end - start);
+			compiled.intersect(start, end, ox, oy, dx, dy, t);
+			out.countEdgesTested(end - start);
+			out.countSectorVisited();
+			for (int e = start; e < end; e++) {
+				if (t[e - start] >= tMax) continue;
+
+				compiled.recordHit(out.add(), e, t[e - start], dx, dy);
+				if (!compiled.isPortal(e)) continue;
+
+				for (int n : portalLinks[s][e - start]) stackHead = out.visit(n, stackHead);
+			}
+			for (int n : overlapLinks[s]) stackHead = out.visit(n, stackHead);
+		}
+	}
+
+	/**
+	 * Links every portal edge to the walls of other sectors lying along it.
+	 * Edges are linked if they are collinear and overlap, so portals that were
+	 * split by convex decomposition on only one side are still linked.
+	 */
+	private void buildPortalLinks() {
+		portalLinks = new int[sectors.length][][];
+		for (int i = 0; i < sectors.length; i++) {
+			PEdge[] walls = sectors[i].getWalls();
+			portalLinks[i] = new int[walls.length][];
+			for (int w = 0; w < walls.length; w++) {
+				if (!walls[w].isPortal()) {
+					portalLinks[i][w] = new int[0];
+					continue;
+
+				}
+				int[] links = new int[sectors.length];
+				int head = 0;
+				for (int j = 0; j < sectors.length; j++) {
+					if (j == i) continue;
+
+					for (PEdge other : sectors[j].getWalls()) {
+						if (sharesEdge(walls[w], other)) {
+							links[head++] = j;
+							break;
+
+						}
+					}
+				}
+				portalLinks[i][w] = PArrays.reduceArray(links, head);
+			}
+		}
+	}
+
+	/**
+	 * Links every sector to the sectors whose interiors overlap with it.
+	 */
+	private void buildOverlapLinks() {
+		overlapLinks = new int[sectors.length][];
+		for (int i = 0; i < sectors.length; i++) {
+			int[] links = new int[sectors.length];
+			int head = 0;
+			for (int j = 0; j < sectors.length; j++) {
+				if (j == i) continue;
+
+				if (overlaps(sectors[i], sectors[j])) links[head++] = j;
+			}
+			overlapLinks[i] = PArrays.reduceArray(links, head);
+		}
+	}
+
+	/**
+	 * Checks if 2 edges are collinear and overlap by more than a point.
+	 * @param  a the first edge
+	 * @param  b the second edge
+	 * @return   {@code true} if the edges share a section, else {@code false}
+	 */
+	private boolean sharesEdge(PEdge a, PEdge b) {
+		PVec2 d = a.getP1().sub(a.getP0());
+		double length = d.length();
+		if (length < EPSILON) return false;
+
+		PVec2 toQ0 = b.getP0().sub(a.getP0());
+		PVec2 toQ1 = b.getP1().sub(a.getP0());
+		if (Math.abs(PVec2.cross(d, toQ0)) / length > EPSILON) return false;
+
+		if (Math.abs(PVec2.cross(d, toQ1)) / length > EPSILON) return false;
+
+		double s0 = PVec2.dot(toQ0, d) / (length * length);
+		double s1 = PVec2.dot(toQ1, d) / (length * length);
+		double overlap = Math.min(1.0, Math.max(s0, s1)) - Math.max(0.0, Math.min(s0, s1));
+		return overlap * length > EPSILON;
+
+	}
+
+	/**
+	 * Checks if the interiors of 2 sectors overlap.
+	 * Corners are nudged towards the centre of their own sector before being
+	 * tested so that sectors which only share a boundary are not counted.
+	 * @param  a the first sector
+	 * @param  b the second sector
+	 * @return   {@code true} if the sectors overlap, else {@code false}
+	 */
+	private boolean overlaps(PSector a, PSector b) {
+		if (anyCornerInside(a, b) || anyCornerInside(b, a)) return true;
+
+		for (PEdge ea : a.getWalls()) {
+			for (PEdge eb : b.getWalls()) {
+				if (crosses(ea, eb)) return true;
+
+			}
+		}
+		return false;
+
+	}
+
+	/**
+	 * Checks if any nudged corner (or the centre) of one sector is inside another.
+	 * @param  inner the sector whose corners are tested
+	 * @param  outer the sector to test against
+	 * @return       {@code true} if a corner is inside, else {@code false}
+	 */
+	private boolean anyCornerInside(PSector inner, PSector outer) {
+		PVec2[] corners = inner.getCorners();
+		PVec2 centre = new PVec2(0.0, 0.0);
+		for (PVec2 c : corners) centre = centre.add(c);
+		centre = centre.div(corners.length);
+		if (outer.contains(centre)) return true;
+
+		for (PVec2 c : corners) {
+			PVec2 nudged = c.add(centre.sub(c).mul(1.0E-4));
+			if (outer.contains(nudged)) return true;
+
+		}
+		return false;
+
+	}
+
+	/**
+	 * Checks if 2 edges properly cross each other (not touching at their ends).
+	 * @param  a the first edge
+	 * @param  b the second edge
+	 * @return   {@code true} if the edges cross, else {@code false}
+	 */
+	private boolean crosses(PEdge a, PEdge b) {
+		PVec2 da = a.getP1().sub(a.getP0());
+		PVec2 db = b.getP1().sub(b.getP0());
+		double d0 = PVec2.cross(da, b.getP0().sub(a.getP0()));
+		double d1 = PVec2.cross(da, b.getP1().sub(a.getP0()));
+		double d2 = PVec2.cross(db, a.getP0().sub(b.getP0()));
+		double d3 = PVec2.cross(db, a.getP1().sub(b.getP0()));
+		return ((d0 > EPSILON && d1 < -EPSILON) || (d0 < -EPSILON && d1 > EPSILON))
+				&& ((d2 > EPSILON && d3 < -EPSILON) || (d2 < -EPSILON && d3 > EPSILON));
+
+	}
+}
@@ -0,0 +1,51 @@
+package com.ang.peLib.hittables;
+
+/**
+ * Edge intersection backend testing one edge at a time.
+ * @see PEdgeKernel
+ */
+class PScalarEdgeKernel implements PEdgeKernel {
+	final static PScalarEdgeKernel INSTANCE = new PScalarEdgeKernel();
+
+	@Override
+	public void intersect(double[] x0, double[] y0, double[] ex, double[] ey, int from, 
+			int to, double ox, double oy, double dx, double dy, double[] tOut) {
+		for (int e = from; e < to; e++) {
+			tOut[e - from] = intersectOne(x0[e], y0[e], ex[e], ey[e], ox, oy, dx, dy);
+		}
+	}
+
+	@Override
+	public String getName() {
+		return "scalar";
+
+	}
+
+	/**
+	 * Finds the distance along a ray to its intersection with a single edge.
+	 * @param  x0 the x coordinate of the edge's first corner
+	 * @param  y0 the y coordinate of the edge's first corner
+	 * @param  ex the x axis of the edge vector
+	 * @param  ey the y axis of the edge vector
+	 * @param  ox the x coordinate of the ray's origin
+	 * @param  oy the y coordinate of the ray's origin
+	 * @param  dx the x axis of the ray's direction
+	 * @param  dy the y axis of the ray's direction
+	 * @return    the distance along the ray to the intersection, or
+	 * 			  {@link Double#POSITIVE_INFINITY} if the ray misses the edge
+	 */
+	static double intersectOne(double x0, double y0, double ex, double ey, 
+			double ox, double oy, double dx, double dy) {
+		double v1x = ox - x0;
+		double v1y = oy - y0;
+		double denom = (ex * -dy) + (ey * dx);
+		double t1 = ((ex * v1y) - (ey * v1x)) / denom;
+		double t2 = ((v1x * -dy) + (v1y * dx)) / denom;
+		if ((t1 >= 0.0) && (t2 >= 0.0) && (t2 <= 1.0)) {
+			return t1;
+
+		}
+		return Double.POSITIVE_INFINITY;
+
+	}
+}
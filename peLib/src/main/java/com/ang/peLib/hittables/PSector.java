@@ -18,8 +18,13 @@ public class PSector extends PCopyable {
 	private int[] portalIndices;
 	private double floorHeight;
 	private double ceilingHeight;
+	// cached axis aligned bounding box of the corners
+	private double minX, minY, maxX, maxY;
+	private String wallTexture = null;
 	// TODO: implement light level
 	private double lightLevel = 1.0; 
+	private long version = PSectorWorld.nextVersion();
+	private long geometryVersion = version;
 
 	/**
 	 * Constructor for a sector from its corners and the portal data.
@@ -50,6 +55,7 @@ public class PSector extends PCopyable {
 			}
 			walls[head++] = wall;
 		}
+		updateBounds();
 	}
 
 	/**
@@ -95,6 +101,8 @@ public class PSector extends PCopyable {
 	 */
 	private void updatePortals(int[] newPortalIndices) {
 		portalIndices = newPortalIndices;
+		version = PSectorWorld.nextVersion();
+		geometryVersion = version;
 		walls = new PEdge[corners.length];
 		int head = 0;
 		for (int i = 0; i < corners.length; i++) {
@@ -106,6 +114,24 @@ public class PSector extends PCopyable {
 			}
 			walls[head++] = wall;
 		}
+		updateBounds();
+	}
+
+	/**
+	 * Recalculates the bounding box of the sector from its corners.
+	 * Called whenever the corners are changed through the sector's methods.
+	 */
+	private void updateBounds() {
+		minX = Double.POSITIVE_INFINITY;
+		minY = Double.POSITIVE_INFINITY;
+		maxX = Double.NEGATIVE_INFINITY;
+		maxY = Double.NEGATIVE_INFINITY;
+		for (PVec2 c : corners) {
+			minX = Math.min(minX, c.x());
+			minY = Math.min(minY, c.y());
+			maxX = Math.max(maxX, c.x());
+			maxY = Math.max(maxY, c.y());
+		}
 	}
 
 	/**
@@ -116,6 +142,7 @@ public class PSector extends PCopyable {
 	public PSector copy() {
 		PSector sec = new PSector(PArrays.copy(corners, PVec2.class), portalIndices.clone());
 		sec.setHeight(floorHeight, ceilingHeight);
+		sec.setWallTexture(wallTexture);
 		return sec;
 
 	}
@@ -128,11 +155,23 @@ public class PSector extends PCopyable {
 	public void setHeight(double floorHeight, double ceilingHeight) {
 		this.floorHeight = floorHeight;
 		this.ceilingHeight = ceilingHeight;
+		version = PSectorWorld.nextVersion();
 		// for (int i = 0; i < walls.length; i++) {
 		// 	walls[i].setHeight(floorHeight, ceilingHeight);
 		// }
 	}
 
+	/**
+	 * Sets the texture drawn on the walls of the sector.
+	 * @param wallTexture the name of a sprite resource, or {@code null} to draw 
+	 * 					  the walls in their flat colour
+	 * @see   			  com.ang.peLib.graphics.PTextureStore
+	 */
+	public void setWallTexture(String wallTexture) {
+		this.wallTexture = wallTexture;
+		version = PSectorWorld.nextVersion();
+	}
+
 	/**
 	 * Sets the light level for the sector.
 	 * Currently light level is not implemented.
@@ -140,6 +179,7 @@ public class PSector extends PCopyable {
 	 */
 	public void setLightLevel(double lightLevel) {
 		this.lightLevel = lightLevel;
+		version = PSectorWorld.nextVersion();
 	}
 
 	/**
@@ -150,6 +190,7 @@ public class PSector extends PCopyable {
 		for (int i = 0; i < corners.length; i++) {
 			corners[i] = corners[i].add(delta);
 		}
+		updatePortals(portalIndices);
 	}
 
 	/**
@@ -291,6 +332,35 @@ public class PSector extends PCopyable {
 
 	}
 
+	/**
+	 * Returns the version of the sector.
+	 * The version changes every time the sector's corners, portals, heights, 
+	 * texture or light level are changed through its methods. Versions are 
+	 * shared with {@link PSectorWorld}, so a newer change always has a 
+	 * higher version.
+	 * @return the current version of the sector
+	 * @see    PSectorWorld#getVersion()
+	 */
+	public long getVersion() {
+		return version;
+
+	}
+
+	/**
+	 * Returns the version of the sector's geometry.
+	 * The geometry version only changes when the sector's corners or portals 
+	 * are changed, so it stays the same while heights, the texture or the 
+	 * light level change. Anything built from the shape of the sector only 
+	 * needs rebuilding when this version changes.
+	 * @return the current geometry version of the sector
+	 * @see    #getVersion()
+	 * @see    PSectorWorld#getGeometryVersion()
+	 */
+	public long getGeometryVersion() {
+		return geometryVersion;
+
+	}
+
 	/**
 	 * Returns the height of the sector's floor.
 	 * @return the sector's floor height
@@ -309,6 +379,52 @@ public class PSector extends PCopyable {
 
 	}
 
+	/**
+	 * Returns the name of the texture drawn on the walls of the sector.
+	 * @return the name of the wall texture, or {@code null} if the walls are 
+	 * 		   not textured
+	 */
+	public String getWallTexture() {
+		return wallTexture;
+
+	}
+
+	/**
+	 * Returns the smallest x coordinate of the sector's bounding box.
+	 * @return the minimum x coordinate of any corner
+	 */
+	public double getMinX() {
+		return minX;
+
+	}
+
+	/**
+	 * Returns the smallest y coordinate of the sector's bounding box.
+	 * @return the minimum y coordinate of any corner
+	 */
+	public double getMinY() {
+		return minY;
+
+	}
+
+	/**
+	 * Returns the largest x coordinate of the sector's bounding box.
+	 * @return the maximum x coordinate of any corner
+	 */
+	public double getMaxX() {
+		return maxX;
+
+	}
+
+	/**
+	 * Returns the largest y coordinate of the sector's bounding box.
+	 * @return the maximum y coordinate of any corner
+	 */
+	public double getMaxY() {
+		return maxY;
+
+	}
+
 	/**
 	 * Returns the light level of the sector.
 	 * @return the sector's light level
@@ -330,6 +446,9 @@ public class PSector extends PCopyable {
 
 	/**
 	 * Returns all of the corners that make up the sector.
+	 * Corners should be changed with {@link #replaceCornerAt(int, PVec2)} 
+	 * rather than by writing to this array, so that the walls and bounding 
+	 * box are kept up to date.
 	 * @return the corners that make up the sector
 	 * @see    com.ang.peLib.maths.PVec2
 	 */
@@ -405,6 +524,27 @@ public class PSector extends PCopyable {
 
 	}
 
+	/**
+	 * Determines if a point lies inside of the sector.
+	 * Uses the crossing number of a horizontal ray cast from the point.
+	 * @param  p the point to test
+	 * @return   {@code true} if the point is inside the sector, else {@code false}
+	 * @see      com.ang.peLib.maths.PVec2
+	 */
+	public boolean contains(PVec2 p) {
+		boolean inside = false;
+		for (int i = 0, j = corners.length - 1; i < corners.length; j = i++) {
+			PVec2 a = corners[i];
+			PVec2 b = corners[j];
+			if ((a.y() > p.y()) != (b.y() > p.y())) {
+				double crossX = a.x() + (p.y() - a.y()) * (b.x() - a.x()) / (b.y() - a.y());
+				if (p.x() < crossX) inside = !inside;
+			}
+		}
+		return inside;
+
+	}
+
 	/**
 	 * Determines if a ray intersects with the sector within an interval of distance.
 	 * @param  r			the {@link com.ang.peLib.maths.PRay} to look for hits with
@@ -465,6 +605,36 @@ public class PSector extends PCopyable {
 
 	}
 
+	/**
+	 * Finds all intersections between a ray and the walls of the sector 
+	 * without allocating.
+	 * Hits are appended to a reusable hit list.
+	 * @param ox		  the x coordinate of the ray's origin
+	 * @param oy		  the y coordinate of the ray's origin
+	 * @param dx		  the x axis of the ray's direction
+	 * @param dy		  the y axis of the ray's direction
+	 * @param tMax		  the maximum distance at which to search for hits
+	 * @param sectorIndex index of this sector in its world, stored in each hit
+	 * @param out		  the list to append the hits to
+	 * @see				  PHitList
+	 */
+	public void allHits(double ox, double oy, double dx, double dy, double tMax,
+			int sectorIndex, PHitList out) {
+		out.countEdgesTested(walls.length);
+		out.countSectorVisited();
+		for (int i = 0; i < walls.length; i++) {
+			PEdge w = walls[i];
+			double t = w.intersect(ox, oy, dx, dy);
+			if (t < tMax) {
+				PHitRecord rec = out.add();
+				w.recordHit(rec, t, dx, dy);
+				rec.setFloor(floorHeight);
+				rec.setCeiling(ceilingHeight);
+				rec.setSectorIndex(sectorIndex);
+			}
+		}
+	}
+
 	/**
 	 * Returns a string representation of the sector for debugging.
 	 * @return the string representation of the sector
@@ -1,5 +1,8 @@
 package com.ang.peLib.hittables;
 
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
 import com.ang.peLib.maths.*;
 import com.ang.peLib.utils.*;
 
@@ -10,7 +13,14 @@ import com.ang.peLib.utils.*;
 public class PSectorWorld extends PCopyable {
 	private PSector[] sectors;
 	private int maxSectors;
+	private final static AtomicLong lastVersion = new AtomicLong();
+	private final static ThreadLocal<PHitList> closest = 
+			ThreadLocal.withInitial(() -> new PHitList(1));
 	private int head = 0;
+	private long version = nextVersion();
+	// {lastVersion when gathered, version, geometry version}, never modified
+	private volatile long[] versions = {-1L, 0L, 0L};
+	private volatile PEdgeGrid grid; // built by the first ray query
 
 	/**
 	 * Constructs a new sector world.
@@ -54,6 +64,7 @@ public class PSectorWorld extends PCopyable {
 		if (head < maxSectors) {
 			insertionIndex = head;
 			sectors[head++] = sec;
+			version = nextVersion();
 		} else {
 			System.out.println("Failed to add sector to world");
 		}
@@ -69,6 +80,7 @@ public class PSectorWorld extends PCopyable {
 	 */
 	public void replaceSectorAt(int index, PSector sec) {
 		sectors[index] = sec;
+		version = nextVersion();
 	}
 
 	/**
@@ -81,6 +93,74 @@ public class PSectorWorld extends PCopyable {
 			sectors[i] = sectors[i + 1];
 		}
 		head--;
+		version = nextVersion();
+	}
+
+	/**
+	 * Returns the version of the world.
+	 * The version changes every time a sector is added, replaced or removed, 
+	 * or a sector in the world is changed through its methods, so anything 
+	 * built from the world can tell if it is out of date. Every change takes 
+	 * a new version from a counter shared by all worlds and sectors, so the 
+	 * newest of the world's own version and its sectors' versions is always 
+	 * higher after any change. The sectors are only checked again once 
+	 * that counter has moved on, so between changes this is constant time.
+	 * @return the current version of the world
+	 * @see    PSector#getVersion()
+	 * @see    #getGeometryVersion()
+	 */
+	public long getVersion() {
+		return gatherVersions()[1];
+
+	}
+
+	/**
+	 * Returns the version of the world's geometry.
+	 * The geometry version changes when a sector is added, replaced or 
+	 * removed, or the corners or portals of a sector are changed, but not 
+	 * when only the heights, texture or light level of a sector change. 
+	 * While it stays the same, anything built from the edges of the world 
+	 * only needs the heights and textures of its sectors copied again.
+	 * @return the current geometry version of the world
+	 * @see    PSector#getGeometryVersion()
+	 * @see    #getVersion()
+	 */
+	public long getGeometryVersion() {
+		return gatherVersions()[2];
+
+	}
+
+	/**
+	 * Returns the versions of the world, checking its sectors again only if 
+	 * any world or sector has changed since they were last checked.
+	 * @return the value of the shared counter when the versions were 
+	 * 		   gathered, the version and the geometry version of the world
+	 */
+	private long[] gatherVersions() {
+		long[] latest = versions;
+		if (latest[0] == lastVersion.get()) return latest;
+
+		// read the counter first, a change made while scanning is seen next time
+		long now = lastVersion.get();
+		long worldVersion = version;
+		long geometryVersion = version;
+		for (int i = 0; i < head; i++) {
+			worldVersion = Math.max(worldVersion, sectors[i].getVersion());
+			geometryVersion = Math.max(geometryVersion, sectors[i].getGeometryVersion());
+		}
+		latest = new long[]{now, worldVersion, geometryVersion};
+		versions = latest;
+		return latest;
+
+	}
+
+	/**
+	 * Takes a new version for a change to a world or sector.
+	 * @return a version higher than any taken before
+	 */
+	static long nextVersion() {
+		return lastVersion.incrementAndGet();
+
 	}
 
 	/**
@@ -118,6 +198,8 @@ public class PSectorWorld extends PCopyable {
 
 	/**
 	 * Determines if a ray intersects with a sector in the world within an interval of distance.
+	 * The ray walks a grid over the edges of the world, see 
+	 * {@link #allHits(double, double, double, double, double, PHitList)}.
 	 * @param  r			the {@link com.ang.peLib.maths.PRay} to look for hits with
 	 * @param  tInterval	bounds on the distance within which to search for hits
 	 * @param  rec			the {@link PHitRecord} to record the hit to
@@ -129,29 +211,26 @@ public class PSectorWorld extends PCopyable {
 	 * @see					PHitRecord
 	 */
 	public boolean hit(PRay r, PInterval tInterval, PHitRecord rec) {
-		boolean didHit = false;
-		double closestHit = Double.MAX_VALUE;
-		PHitRecord tempRec = new PHitRecord();
-		for (int i = 0; i < head; i++) {
-			PSector sec = sectors[i];
-			PInterval bounds = new PInterval(tInterval.getMin(), closestHit);
-			if (sec.hit(r, bounds, tempRec)) {
-				if ((tempRec.getT() >= 0.0) && (tempRec.getT() < tInterval.getMax())) {
-					didHit = true;
-					closestHit = tempRec.getT();
-					rec.setT(tempRec.getT());
-					rec.setColour(tempRec.getColour());
-					rec.setFloor(tempRec.getFloorHeight());
-					rec.setCeiling(tempRec.getCeilingHeight());
-				}
-			}
+		PVec2 o = r.getOrigin();
+		PVec2 d = r.getDirection();
+		PHitList hits = closest.get();
+		if (!edgeGrid().closestHit(o.x(), o.y(), d.x(), d.y(), tInterval.getMax(), hits)) {
+			return false;
+
 		}
-		return didHit;
+		PHitRecord closest = hits.get(0);
+		rec.setT(closest.getT());
+		rec.setColour(closest.getColour());
+		rec.setFloor(closest.getFloorHeight());
+		rec.setCeiling(closest.getCeilingHeight());
+		return true;
 
 	}
 
 	/**
 	 * Finds all intersections between a ray and the world within an interval of distance.
+	 * The ray walks a grid over the edges of the world, see 
+	 * {@link #allHits(double, double, double, double, double, PHitList)}.
 	 * @param  r			the {@link com.ang.peLib.maths.PRay} to look for hits with
 	 * @param  tInterval	bounds on the distance within which to search for hits
 	 * @return 				an array of {@link PHitRecord}s holding information
@@ -163,18 +242,80 @@ public class PSectorWorld extends PCopyable {
 	 * @see					PHitRecord
 	 */
 	public PHitRecord[] allHits(PRay r, PInterval tInterval) {
-		PHitRecord[] hits = new PHitRecord[100];
-		int hitsHead = 0;
-		for (int i = 0; i < head; i++) {
-			PSector sec = sectors[i];
-			for (PHitRecord rec : sec.allHits(r, tInterval.copy())) {
-				if ((rec.getT() >= 0.0) & (rec.getT() < tInterval.getMax())) {
-					rec.setSectorIndex(i);
-					hits[hitsHead++] = rec;
-				}
+		PVec2 o = r.getOrigin();
+		PVec2 d = r.getDirection();
+		PHitList hits = new PHitList(0);
+		allHits(o.x(), o.y(), d.x(), d.y(), tInterval.getMax(), hits);
+		return Arrays.copyOf(hits.getRecords(), hits.size());
+
+	}
+
+	/**
+	 * Finds all intersections between a ray and the world without allocating.
+	 * The ray walks a grid over the edges of the world, so only walls near 
+	 * the ray are tested. The grid is built by the first query and built 
+	 * again once the version of the world changes. Hits are listed in order 
+	 * of sector, then of wall within the sector. Any previous hits in the 
+	 * list are cleared.
+	 * @param ox   the x coordinate of the ray's origin
+	 * @param oy   the y coordinate of the ray's origin
+	 * @param dx   the x axis of the ray's direction
+	 * @param dy   the y axis of the ray's direction
+	 * @param tMax the maximum distance at which to search for hits
+	 * @param out  the list to write the hits to
+	 * @see		   PHitList
+	 * @see		   PEdgeGrid
+	 */
+	public void allHits(double ox, double oy, double dx, double dy, double tMax,
+			PHitList out) {
+		edgeGrid().allHits(ox, oy, dx, dy, tMax, out);
+		// the grid finds hits cell by cell, put them back in order of edge
+		PHitRecord[] records = out.getRecords();
+		for (int i = 1; i < out.size(); i++) {
+			PHitRecord rec = records[i];
+			int j = i - 1;
+			while ((j >= 0) && (records[j].getEdgeIndex() > rec.getEdgeIndex())) {
+				records[j + 1] = records[j];
+				j--;
 			}
+			records[j + 1] = rec;
+		}
+		// edge indices are into the grid's compiled world, which is not shared
+		for (int i = 0; i < out.size(); i++) {
+			records[i].setEdgeIndex(-1);
+		}
+	}
+
+	/**
+	 * Returns the grid used for ray queries, building it if the world has 
+	 * changed since it was last built. Only building the grid takes a lock.
+	 * @return the grid over the edges of the world
+	 * @see    PEdgeGrid
+	 */
+	private PEdgeGrid edgeGrid() {
+		PEdgeGrid current = grid;
+		if ((current != null) && (current.getWorld().getWorldVersion() == getVersion())) {
+			return current;
+
+		}
+		return buildEdgeGrid();
+
+	}
+
+	/**
+	 * Builds the grid used for ray queries, unless another thread already 
+	 * has since the world last changed.
+	 * Queries may still be running on the old grid, so its compiled world 
+	 * is not updated in place even if only heights or textures changed.
+	 * @return the grid over the edges of the world
+	 * @see    PEdgeGrid
+	 */
+	private synchronized PEdgeGrid buildEdgeGrid() {
+		long current = getVersion();
+		if ((grid == null) || (grid.getWorld().getWorldVersion() != current)) {
+			grid = new PEdgeGrid(new PCompiledWorld(this));
 		}
-		return (PHitRecord[]) PArrays.reduceArray(hits, hitsHead, PHitRecord.class);
+		return grid;
 
 	}
 
@@ -0,0 +1,72 @@
+package com.ang.peLib.hittables;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Edge intersection backend testing several edges per instruction with the
+ * incubating Vector API.
+ * This class must only be loaded when the {@code jdk.incubator.vector} module
+ * is present, see {@link PEdgeKernels}. Each lane performs the same operations
+ * in the same order as {@link PScalarEdgeKernel} so results are identical.
+ * @see PEdgeKernel
+ */
+class PVectorEdgeKernel implements PEdgeKernel {
+	private final static VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+	private final static double REJECT_SLACK = 1.0E-9;
+
+	@Override
+	public void intersect(double[] x0, double[] y0, double[] ex, double[] ey, int from, 
+			int to, double ox, double oy, double dx, double dy, double[] tOut) {
+		double ndy = -dy;
+		DoubleVector vox = DoubleVector.broadcast(SPECIES, ox);
+		DoubleVector voy = DoubleVector.broadcast(SPECIES, oy);
+		DoubleVector inf = DoubleVector.broadcast(SPECIES, Double.POSITIVE_INFINITY);
+		int upper = from + SPECIES.loopBound(to - from);
+		int e = from;
+		for (; e < upper; e += SPECIES.length()) {
+			DoubleVector vx0 = DoubleVector.fromArray(SPECIES, x0, e);
+			DoubleVector vy0 = DoubleVector.fromArray(SPECIES, y0, e);
+			DoubleVector vex = DoubleVector.fromArray(SPECIES, ex, e);
+			DoubleVector vey = DoubleVector.fromArray(SPECIES, ey, e);
+			DoubleVector v1x = vox.sub(vx0);
+			DoubleVector v1y = voy.sub(vy0);
+			DoubleVector denom = vex.mul(ndy).add(vey.mul(dx));
+			DoubleVector num1 = vex.mul(v1y).sub(vey.mul(v1x));
+			DoubleVector num2 = v1x.mul(ndy).add(v1y.mul(dx));
+			// reject blocks of clear misses without dividing, the slack keeps 
+			// this a superset of the exact test below so results do not change
+			VectorMask<Double> flip = denom.test(VectorOperators.IS_NEGATIVE);
+			DoubleVector absDenom = denom.lanewise(VectorOperators.NEG, flip);
+			DoubleVector negSlack = absDenom.mul(-REJECT_SLACK);
+			DoubleVector s1 = num1.lanewise(VectorOperators.NEG, flip);
+			DoubleVector s2 = num2.lanewise(VectorOperators.NEG, flip);
+			VectorMask<Double> miss = s1.compare(VectorOperators.LT, negSlack)
+					.or(s2.compare(VectorOperators.LT, negSlack))
+					.or(s2.compare(VectorOperators.GT, absDenom.sub(negSlack)));
+			if (miss.allTrue()) {
+				inf.intoArray(tOut, e - from);
+				continue;
+
+			}
+			DoubleVector t1 = num1.div(denom);
+			DoubleVector t2 = num2.div(denom);
+			VectorMask<Double> hit = t1.compare(VectorOperators.GE, 0.0)
+					.and(t2.compare(VectorOperators.GE, 0.0))
+					.and(t2.compare(VectorOperators.LE, 1.0));
+			inf.blend(t1, hit).intoArray(tOut, e - from);
+		}
+		for (; e < to; e++) {
+			tOut[e - from] = PScalarEdgeKernel.intersectOne(x0[e], y0[e], ex[e], ey[e], 
+					ox, oy, dx, dy);
+		}
+	}
+
+	@Override
+	public String getName() {
+		return "vector (" + SPECIES.length() + " lanes)";
+
+	}
+}
@@ -0,0 +1,62 @@
+package com.ang.peLib.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event spanning the drawing of a frame.
+ * The event is only recorded when enabled in the flight recorder settings, 
+ * so it can be left in the frame loop. Its duration runs from the start of 
+ * the frame to the frame being presented.
+ */
+@Name("com.ang.pe.Frame")
+@Label("Frame")
+@Category({"Portal Engine", "Rendering"})
+@Description("Drawing and presenting a single frame")
+@StackTrace(false)
+public class PFrameEvent extends Event {
+	@Label("Render Mode")
+	int renderMode;
+
+	@Label("Sectors")
+	@Description("Sectors in the world being drawn")
+	int sectors;
+
+	@Label("Visible Sectors")
+	@Description("Sectors left after frustum culling")
+	int visibleSectors;
+
+	@Label("Candidate Edges")
+	@Description("Edges of the sectors left after frustum culling")
+	int candidateEdges;
+
+	@Label("Hits Reused")
+	@Description("Whether the hits of the last frame were drawn again")
+	boolean hitsReused;
+
+	/**
+	 * Ends the event and records it with the counts of the frame, if the 
+	 * event is enabled and passes its threshold.
+	 * @param renderMode 	 the render mode the frame was drawn in
+	 * @param sectors 		 the amount of sectors in the world
+	 * @param visibleSectors the amount of sectors left after culling
+	 * @param candidateEdges the amount of edges in the visible sectors
+	 * @param hitsReused 	 {@code true} if the last frame's hits were reused
+	 */
+	public void finish(int renderMode, int sectors, int visibleSectors, int candidateEdges, 
+			boolean hitsReused) {
+		end();
+		if (!shouldCommit()) return;
+
+		this.renderMode = renderMode;
+		this.sectors = sectors;
+		this.visibleSectors = visibleSectors;
+		this.candidateEdges = candidateEdges;
+		this.hitsReused = hitsReused;
+		commit();
+	}
+}
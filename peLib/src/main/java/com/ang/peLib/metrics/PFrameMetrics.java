@@ -0,0 +1,193 @@
+package com.ang.peLib.metrics;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import com.ang.peLib.graphics.PRenderer;
+
+/**
+ * Times each stage of a frame and keeps rolling percentiles of the timings.
+ * Stages are timed as laps: {@link #mark()} marks the start of a stage, 
+ * then each call to {@link #lap(PFrameStage)} records the time since the 
+ * last mark against a stage and marks the start of the next one. 
+ * Recording only reads the clock and updates a histogram, so nothing is 
+ * allocated while timing. Reports of the timings, as an overlay or a dump, 
+ * build strings and should not be made more often than needed. An instance 
+ * must only be used by one thread at a time.
+ * @see PFrameStage
+ * @see PTimingHistogram
+ */
+public class PFrameMetrics {
+	private final static double NANOS_PER_MS = 1e6;
+	private final PTimingHistogram[] histograms;
+	private long mark = System.nanoTime();
+
+	/**
+	 * Constructs a new set of frame metrics.
+	 * @param windowSize the amount of latest timings of each stage to keep
+	 */
+	public PFrameMetrics(int windowSize) {
+		histograms = new PTimingHistogram[PFrameStage.values().length];
+		for (int i = 0; i < histograms.length; i++) {
+			histograms[i] = new PTimingHistogram(windowSize);
+		}
+	}
+
+	/**
+	 * Marks the start of the next stage to time.
+	 * Time passed since the last mark is not recorded against any stage.
+	 * @return the time of the mark in nanoseconds
+	 */
+	public long mark() {
+		mark = System.nanoTime();
+		return mark;
+
+	}
+
+	/**
+	 * Records the time since the last mark against a stage and marks the 
+	 * start of the next stage.
+	 * @param  stage the stage that has just finished
+	 * @return 		 the time of the new mark in nanoseconds
+	 */
+	public long lap(PFrameStage stage) {
+		long now = System.nanoTime();
+		histograms[stage.ordinal()].record(now - mark);
+		mark = now;
+		return now;
+
+	}
+
+	/**
+	 * Records a duration against a stage without changing the mark.
+	 * @param stage the stage to record the duration for
+	 * @param nanos the duration in nanoseconds
+	 */
+	public void record(PFrameStage stage, long nanos) {
+		histograms[stage.ordinal()].record(nanos);
+	}
+
+	/**
+	 * Returns the histogram of timings for a stage.
+	 * @param  stage the stage to get the timings of
+	 * @return 		 the rolling histogram for the stage
+	 * @see 		 PTimingHistogram
+	 */
+	public PTimingHistogram getHistogram(PFrameStage stage) {
+		return histograms[stage.ordinal()];
+
+	}
+
+	/**
+	 * Writes a table of the timings of each stage onto the screen.
+	 * Each stage that has been timed is shown on its own line with its p50, 
+	 * p95, p99 and max in milliseconds.
+	 * @param renderer the renderer to write to
+	 * @param x 	   x screenspace coordinate of the left of the table
+	 * @param y 	   y screenspace coordinate of the first line's baseline
+	 * @see   		   PRenderer#writeText(String, int, int)
+	 */
+	public void writeOverlay(PRenderer renderer, int x, int y) {
+		final int lineHeight = 12;
+		renderer.writeText("ms    p50  p95  p99  max", x, y);
+		for (PFrameStage stage : PFrameStage.values()) {
+			PTimingHistogram h = histograms[stage.ordinal()];
+			if (h.size() == 0) continue;
+
+			y += lineHeight;
+			renderer.writeText(String.format("%-5s %4.1f %4.1f %4.1f %4.1f", 
+					stage.getLabel(), toMs(h.percentile(0.5)), toMs(h.percentile(0.95)), 
+					toMs(h.percentile(0.99)), toMs(h.max())), x, y);
+		}
+	}
+
+	/**
+	 * Returns the header line for CSV rows.
+	 * @return the column names, separated by commas
+	 * @see    #toCSVRow(long)
+	 */
+	public String getCSVHeader() {
+		StringBuilder sb = new StringBuilder("timeMs");
+		for (PFrameStage stage : PFrameStage.values()) {
+			String l = stage.getLabel();
+			sb.append(',').append(l).append("P50Ns,").append(l).append("P95Ns,")
+					.append(l).append("P99Ns,").append(l).append("MaxNs");
+		}
+		return sb.toString();
+
+	}
+
+	/**
+	 * Returns the current timings as a CSV row.
+	 * @param  timeMs the time of the row, written in the first column
+	 * @return 		  the p50, p95, p99 and max of each stage in nanoseconds, 
+	 * 				  separated by commas
+	 * @see 		  #getCSVHeader()
+	 */
+	public String toCSVRow(long timeMs) {
+		StringBuilder sb = new StringBuilder().append(timeMs);
+		for (PFrameStage stage : PFrameStage.values()) {
+			PTimingHistogram h = histograms[stage.ordinal()];
+			sb.append(',').append(h.percentile(0.5)).append(',').append(h.percentile(0.95))
+					.append(',').append(h.percentile(0.99)).append(',').append(h.max());
+		}
+		return sb.toString();
+
+	}
+
+	/**
+	 * Returns the current timings as a single line JSON object.
+	 * @param  timeMs the time of the timings, written as {@code timeMs}
+	 * @return 		  an object holding an object for each stage with its 
+	 * 				  sample count and p50, p95, p99 and max in nanoseconds
+	 */
+	public String toJSON(long timeMs) {
+		StringBuilder sb = new StringBuilder("{\"timeMs\":").append(timeMs);
+		for (PFrameStage stage : PFrameStage.values()) {
+			PTimingHistogram h = histograms[stage.ordinal()];
+			sb.append(",\"").append(stage.getLabel()).append("\":{\"count\":").append(h.size())
+					.append(",\"p50Ns\":").append(h.percentile(0.5))
+					.append(",\"p95Ns\":").append(h.percentile(0.95))
+					.append(",\"p99Ns\":").append(h.percentile(0.99))
+					.append(",\"maxNs\":").append(h.max()).append('}');
+		}
+		return sb.append('}').toString();
+
+	}
+
+	/**
+	 * Appends the current timings to a file.
+	 * Files ending in {@code .json} get a JSON object per line, any other 
+	 * file gets a CSV row, with a header if the file is new.
+	 * @param  path 	   the file to append to, created if it does not exist
+	 * @param  timeMs 	   the time of the timings
+	 * @throws IOException if the file cannot be written
+	 * @see 			   #toJSON(long)
+	 * @see 			   #toCSVRow(long)
+	 */
+	public void appendTo(Path path, long timeMs) throws IOException {
+		String line;
+		if (path.toString().endsWith(".json")) {
+			line = toJSON(timeMs);
+		} else if (Files.exists(path)) {
+			line = toCSVRow(timeMs);
+		} else {
+			line = getCSVHeader() + System.lineSeparator() + toCSVRow(timeMs);
+		}
+		Files.writeString(path, line + System.lineSeparator(), StandardCharsets.UTF_8, 
+				StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+	}
+
+	/**
+	 * Converts a duration from nanoseconds to milliseconds.
+	 * @param  nanos the duration in nanoseconds
+	 * @return 		 the duration in milliseconds
+	 */
+	private static double toMs(long nanos) {
+		return nanos / NANOS_PER_MS;
+
+	}
+}
@@ -0,0 +1,35 @@
+package com.ang.peLib.metrics;
+
+/**
+ * The stages of a frame that are timed separately.
+ * @see PFrameMetrics
+ */
+public enum PFrameStage {
+	INPUT("input"), // reading the held keys
+	SIMULATION("sim"), // moving the camera
+	CAST("cast"), // clearing the frame and finding each column's hits
+	MASK("mask"), // calculating the floor and ceiling masks
+	WALL("wall"), // drawing walls and gathering visplanes
+	FLAT("flat"), // drawing visplanes as spans
+	PRESENT("present"), // publishing the frame to the window
+	FRAME("frame"); // the whole frame, from clearing to presenting
+
+	private final String label;
+
+	/**
+	 * Constructs a stage with a short label.
+	 * @param label the label used for the stage in overlays and dumps
+	 */
+	PFrameStage(String label) {
+		this.label = label;
+	}
+
+	/**
+	 * Returns the short label of the stage.
+	 * @return the label used for the stage in overlays and dumps
+	 */
+	public String getLabel() {
+		return label;
+
+	}
+}
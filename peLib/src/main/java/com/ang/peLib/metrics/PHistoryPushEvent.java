@@ -0,0 +1,41 @@
+package com.ang.peLib.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event spanning a world being pushed to an editor's history.
+ * Pushing copies every saved world, so this shows the cost of each edit. 
+ * Events are only recorded when enabled in the flight recorder settings.
+ */
+@Name("com.ang.pe.HistoryPush")
+@Label("History Push")
+@Category({"Portal Engine", "Editor"})
+@Description("Saving a world state to the undo history")
+public class PHistoryPushEvent extends Event {
+	@Label("Entries")
+	@Description("Entries held in the history after the push")
+	int entries;
+
+	@Label("Sectors")
+	@Description("Sectors in the world pushed")
+	int sectors;
+
+	/**
+	 * Ends the event and records it, if the event is enabled and passes its 
+	 * threshold.
+	 * @param entries the amount of entries in the history after the push
+	 * @param sectors the amount of sectors in the world pushed
+	 */
+	public void finish(int entries, int sectors) {
+		end();
+		if (!shouldCommit()) return;
+
+		this.entries = entries;
+		this.sectors = sectors;
+		commit();
+	}
+}
@@ -0,0 +1,58 @@
+package com.ang.peLib.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event spanning a phase of loading a map.
+ * Reading the file, parsing it and decomposing its sectors are each 
+ * recorded as a separate event. Events are only recorded when enabled in 
+ * the flight recorder settings.
+ */
+@Name("com.ang.pe.MapLoad")
+@Label("Map Load Phase")
+@Category({"Portal Engine", "Loading"})
+@Description("A phase of reading, parsing or decomposing a map")
+public class PMapLoadEvent extends Event {
+	public final static String READ = "read";
+	public final static String PARSE = "parse";
+	public final static String DECOMPOSE = "decompose";
+
+	@Label("Phase")
+	String phase;
+
+	@Label("Map")
+	@Description("Name of the map file, if known")
+	String map;
+
+	@Label("Lines")
+	@Description("Lines of the map file handled")
+	int lines;
+
+	@Label("Sectors")
+	@Description("Sectors in the world after the phase")
+	int sectors;
+
+	/**
+	 * Ends the event and records it, if the event is enabled and passes its 
+	 * threshold.
+	 * @param phase   the phase that was timed, one of {@link #READ}, 
+	 * 				  {@link #PARSE} or {@link #DECOMPOSE}
+	 * @param map 	  the name of the map file, or {@code null} if unknown
+	 * @param lines   the amount of lines handled, or 0
+	 * @param sectors the amount of sectors after the phase, or 0
+	 */
+	public void finish(String phase, String map, int lines, int sectors) {
+		end();
+		if (!shouldCommit()) return;
+
+		this.phase = phase;
+		this.map = map;
+		this.lines = lines;
+		this.sectors = sectors;
+		commit();
+	}
+}
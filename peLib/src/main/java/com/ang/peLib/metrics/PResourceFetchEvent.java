@@ -0,0 +1,54 @@
+package com.ang.peLib.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+import com.ang.peLib.resources.PModuleName;
+import com.ang.peLib.resources.PResourceType;
+
+/**
+ * Flight recorder event spanning a resource being looked up.
+ * Events are only recorded when enabled in the flight recorder settings.
+ */
+@Name("com.ang.pe.ResourceFetch")
+@Label("Resource Fetch")
+@Category({"Portal Engine", "Loading"})
+@Description("Looking up a resource file")
+public class PResourceFetchEvent extends Event {
+	@Label("Resource Type")
+	String resourceType;
+
+	@Label("Module")
+	@Description("Module fetched from, or none for the calling module's resources")
+	String module;
+
+	@Label("Name")
+	String name;
+
+	@Label("Found")
+	@Description("Whether a valid resource was found")
+	boolean found;
+
+	/**
+	 * Ends the event and records it, if the event is enabled and passes its 
+	 * threshold.
+	 * @param resourceType the type of resource fetched
+	 * @param module 	   the module fetched from, or {@code null}
+	 * @param name 		   the filename of the resource
+	 * @param found 	   {@code true} if a valid resource was found
+	 */
+	public void finish(PResourceType resourceType, PModuleName module, String name, 
+			boolean found) {
+		end();
+		if (!shouldCommit()) return;
+
+		this.resourceType = resourceType.toString();
+		this.module = (module == null) ? null : module.getDirName();
+		this.name = name;
+		this.found = found;
+		commit();
+	}
+}
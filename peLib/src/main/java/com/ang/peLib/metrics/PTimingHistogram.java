@@ -0,0 +1,140 @@
+package com.ang.peLib.metrics;
+
+import java.util.Arrays;
+
+/**
+ * Rolling histogram of durations, used to find percentiles of recent timings.
+ * Durations are counted in log-linear buckets: each power of 2 is split into 
+ * 16 buckets, so a percentile is within about 6% of the true value. Only the 
+ * latest samples are kept, in a ring, and the oldest sample is removed from 
+ * its bucket as each new one is added. Nothing is allocated after 
+ * construction. An instance must only be used by one thread at a time.
+ * @see PFrameMetrics
+ */
+public class PTimingHistogram {
+	private final static int SUB_BITS = 4;
+	private final static int SUB_BUCKETS = 1 << SUB_BITS;
+	private final static int BUCKETS = (64 - SUB_BITS) * SUB_BUCKETS;
+	private final int[] counts = new int[BUCKETS];
+	private final long[] window;
+	private int head = 0;
+	private int size = 0;
+
+	/**
+	 * Constructs an empty histogram keeping a set amount of samples.
+	 * @param windowSize the amount of latest samples to keep
+	 */
+	public PTimingHistogram(int windowSize) {
+		window = new long[windowSize];
+	}
+
+	/**
+	 * Adds a duration, dropping the oldest one if the window is full.
+	 * Negative durations are counted as 0.
+	 * @param nanos the duration in nanoseconds
+	 */
+	public void record(long nanos) {
+		nanos = Math.max(nanos, 0L);
+		if (size == window.length) {
+			counts[bucketOf(window[head])]--;
+		} else {
+			size++;
+		}
+		window[head] = nanos;
+		counts[bucketOf(nanos)]++;
+		head = (head + 1 == window.length) ? 0 : head + 1;
+	}
+
+	/**
+	 * Returns the amount of samples held.
+	 * @return the amount of samples in the window
+	 */
+	public int size() {
+		return size;
+
+	}
+
+	/**
+	 * Returns the latest duration added.
+	 * @return the latest sample in nanoseconds, or 0 if there are none
+	 */
+	public long last() {
+		if (size == 0) return 0L;
+
+		return window[(head == 0) ? window.length - 1 : head - 1];
+
+	}
+
+	/**
+	 * Returns the longest duration held.
+	 * @return the longest sample in nanoseconds, or 0 if there are none
+	 */
+	public long max() {
+		long max = 0L;
+		for (int i = 0; i < size; i++) {
+			max = Math.max(max, window[i]);
+		}
+		return max;
+
+	}
+
+	/**
+	 * Returns a percentile of the durations held.
+	 * The result is the upper bound of the bucket holding the percentile, 
+	 * limited to the longest duration held.
+	 * @param  p the percentile (0.0 - 1.0) to find
+	 * @return 	 the duration in nanoseconds that the fraction {@code p} of 
+	 * 			 samples are at or below, or 0 if there are none
+	 */
+	public long percentile(double p) {
+		if (size == 0) return 0L;
+
+		long rank = Math.max(1L, (long) Math.ceil(p * size));
+		long seen = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			seen += counts[i];
+			if (seen >= rank) return Math.min(upperBound(i), max());
+
+		}
+		return max();
+
+	}
+
+	/**
+	 * Removes every sample.
+	 */
+	public void clear() {
+		Arrays.fill(counts, 0);
+		head = 0;
+		size = 0;
+	}
+
+	/**
+	 * Finds the bucket that a duration is counted in.
+	 * Values below 16 have a bucket each, after that every power of 2 is 
+	 * split into 16 buckets.
+	 * @param  nanos the duration, not negative
+	 * @return 		 the index of the bucket
+	 */
+	private static int bucketOf(long nanos) {
+		if (nanos < SUB_BUCKETS) return (int) nanos;
+
+		int shift = (63 - Long.numberOfLeadingZeros(nanos)) - SUB_BITS;
+		return ((shift + 1) << SUB_BITS) + (int) ((nanos >>> shift) & (SUB_BUCKETS - 1));
+
+	}
+
+	/**
+	 * Returns the largest duration counted in a bucket.
+	 * @param  bucket the index of the bucket
+	 * @return 		  the upper bound of the bucket, inclusive
+	 */
+	private static long upperBound(int bucket) {
+		if (bucket < SUB_BUCKETS) return bucket;
+
+		int shift = (bucket >> SUB_BITS) - 1;
+		long lower = ((long) (SUB_BUCKETS + (bucket & (SUB_BUCKETS - 1)))) << shift;
+		return lower + (1L << shift) - 1L;
+
+	}
+}
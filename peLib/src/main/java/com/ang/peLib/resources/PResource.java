@@ -93,7 +93,17 @@ public class PResource {
 
 			}
 			case SPRITE -> {
-				// TODO: implement
+				String lower = path.toLowerCase();
+				if (!(lower.endsWith(".png") || lower.endsWith(".bmp")
+						|| lower.endsWith(".gif") || lower.endsWith(".jpg")
+						|| lower.endsWith(".jpeg"))) {
+					return false;
+
+				}
+				if (!file.getParentFile().getName().equals(PResourceType.SPRITE.getDirName())) {
+					return false;
+
+				}
 				return true;
 
 			}
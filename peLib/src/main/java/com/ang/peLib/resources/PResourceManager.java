@@ -4,6 +4,7 @@ import java.io.UnsupportedEncodingException;
 import java.net.URLDecoder;
 
 import com.ang.peLib.exceptions.*;
+import com.ang.peLib.metrics.PResourceFetchEvent;
 
 /**
  * Manages resources.
@@ -124,26 +125,34 @@ public class PResourceManager {
 	 */
 	public static PResource fetch(PResourceType resourceType, String name) 
 			throws PResourceException {
-		if (name.startsWith(System.getProperty("file.separator"))) {
-			name = name.substring(1);
-		}
-		PResource res;
-		switch (resourceType) {
-			case PMAP -> res = new PResource(resourceType, PResourceManager.MAP_DIR + name, true);
-			case SPRITE -> res = new PResource(resourceType, PResourceManager.SPRITE_DIR + name, true); 
-			case CONFIG -> res = new PResource(resourceType, PResourceManager.CONFIG_DIR + name, true);
-			default -> throw new PResourceException(PResource.invalid(), PResourceExceptionType.INVALID);
-		}
-		if (!res.exists()) {
-			throw new PResourceException(res, PResourceExceptionType.NOT_FOUND);
+		PResourceFetchEvent event = new PResourceFetchEvent();
+		event.begin();
+		boolean found = false;
+		try {
+			if (name.startsWith(System.getProperty("file.separator"))) {
+				name = name.substring(1);
+			}
+			PResource res;
+			switch (resourceType) {
+				case PMAP -> res = new PResource(resourceType, PResourceManager.MAP_DIR + name, true);
+				case SPRITE -> res = new PResource(resourceType, PResourceManager.SPRITE_DIR + name, true); 
+				case CONFIG -> res = new PResource(resourceType, PResourceManager.CONFIG_DIR + name, true);
+				default -> throw new PResourceException(PResource.invalid(), PResourceExceptionType.INVALID);
+			}
+			if (!res.exists()) {
+				throw new PResourceException(res, PResourceExceptionType.NOT_FOUND);
 
-		}
-		if (!res.valid()) {
-			throw new PResourceException(res, PResourceExceptionType.INVALID);
+			}
+			if (!res.valid()) {
+				throw new PResourceException(res, PResourceExceptionType.INVALID);
 
-		}
-		return res;
+			}
+			found = true;
+			return res;
 
+		} finally {
+			event.finish(resourceType, null, name, found);
+		}
 	}
 
 	/**
@@ -161,25 +170,33 @@ public class PResourceManager {
 	 */
 	public static PResource fetch(PResourceType resourceType, PModuleName module, 
 			String name) throws PResourceException {
-		if (name.startsWith(System.getProperty("file.separator"))) {
-			name = name.substring(1);
-		}
-		PResource res;
-		switch (resourceType) {
-			case PMAP -> res = new PResource(resourceType, getDirOf(resourceType, module) + name, false);
-			case SPRITE -> res = new PResource(resourceType, getDirOf(resourceType, module) + name, false); 
-			case CONFIG -> res = new PResource(resourceType, getDirOf(resourceType, module) + name, false);
-			default -> throw new PResourceException(PResource.invalid(), PResourceExceptionType.INVALID);
-		}
-		if (!res.exists()) {
-			throw new PResourceException(res, PResourceExceptionType.NOT_FOUND);
+		PResourceFetchEvent event = new PResourceFetchEvent();
+		event.begin();
+		boolean found = false;
+		try {
+			if (name.startsWith(System.getProperty("file.separator"))) {
+				name = name.substring(1);
+			}
+			PResource res;
+			switch (resourceType) {
+				case PMAP -> res = new PResource(resourceType, getDirOf(resourceType, module) + name, false);
+				case SPRITE -> res = new PResource(resourceType, getDirOf(resourceType, module) + name, false); 
+				case CONFIG -> res = new PResource(resourceType, getDirOf(resourceType, module) + name, false);
+				default -> throw new PResourceException(PResource.invalid(), PResourceExceptionType.INVALID);
+			}
+			if (!res.exists()) {
+				throw new PResourceException(res, PResourceExceptionType.NOT_FOUND);
 
-		}
-		if (!res.valid()) {
-			throw new PResourceException(res, PResourceExceptionType.INVALID);
+			}
+			if (!res.valid()) {
+				throw new PResourceException(res, PResourceExceptionType.INVALID);
 
-		}
-		return res;
+			}
+			found = true;
+			return res;
 
+		} finally {
+			event.finish(resourceType, module, name, found);
+		}
 	}
 }
@@ -0,0 +1,17 @@
+package com.ang.peLib.threads;
+
+/**
+ * Interface for work that is split into strips of screen columns.
+ * @see PColumnWorkers
+ */
+public interface PColumnTask {
+	/**
+	 * Processes a strip of screen columns.
+	 * Strips never overlap, so any per-column data written in this call does 
+	 * not need to be synchronized with other strips.
+	 * @param strip index of the strip being processed
+	 * @param x0 	first column in the strip (inclusive)
+	 * @param x1 	last column in the strip (exclusive)
+	 */
+	void run(int strip, int x0, int x1);
+}
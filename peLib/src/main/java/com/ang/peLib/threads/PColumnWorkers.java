@@ -0,0 +1,101 @@
+package com.ang.peLib.threads;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Fixed pool of worker threads that process the screen in strips of columns.
+ * The screen is split into more strips than there are threads so that 
+ * expensive areas of the screen are shared out between workers. Each strip 
+ * has a stable index, which can be used to give it its own scratch state.
+ * With a single thread all strips are run on the calling thread.
+ * @see PColumnTask
+ */
+public class PColumnWorkers {
+	private final static int STRIPS_PER_THREAD = 4;
+	private ExecutorService pool;
+	private List<Callable<Void>> jobs;
+	private int[] stripStarts;
+	private volatile PColumnTask currentTask;
+
+	/**
+	 * Constructs a new set of column workers.
+	 * @param threads the amount of threads to render with, values less than 1 
+	 * 				  use every available processor
+	 * @param width   the width of the screen in pixels
+	 */
+	public PColumnWorkers(int threads, int width) {
+		if (threads < 1) {
+			threads = Runtime.getRuntime().availableProcessors();
+		}
+		int strips = (threads == 1) ? 1 : Math.min(width, threads * STRIPS_PER_THREAD);
+		stripStarts = new int[strips + 1];
+		for (int i = 0; i <= strips; i++) {
+			stripStarts[i] = (int) ((long) width * i / strips);
+		}
+		if (threads > 1) {
+			pool = Executors.newFixedThreadPool(threads, r -> {
+				Thread t = new Thread(r, "PColumnWorker");
+				t.setDaemon(true);
+				return t;
+			});
+			jobs = new ArrayList<Callable<Void>>(strips);
+			for (int i = 0; i < strips; i++) {
+				final int strip = i;
+				jobs.add(() -> {
+					currentTask.run(strip, stripStarts[strip], stripStarts[strip + 1]);
+					return null;
+
+				});
+			}
+		}
+	}
+
+	/**
+	 * Returns the amount of strips that the screen is split into.
+	 * @return the amount of strips
+	 */
+	public int getStripCount() {
+		return stripStarts.length - 1;
+
+	}
+
+	/**
+	 * Runs a task over every strip of the screen and waits for all of them 
+	 * to finish.
+	 * @param task the task to run for each strip
+	 * @see   	   PColumnTask
+	 */
+	public void run(PColumnTask task) {
+		if (pool == null) {
+			for (int i = 0; i < getStripCount(); i++) {
+				task.run(i, stripStarts[i], stripStarts[i + 1]);
+			}
+			return;
+
+		}
+		currentTask = task;
+		try {
+			for (Future<Void> f : pool.invokeAll(jobs)) {
+				f.get();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (ExecutionException e) {
+			throw new RuntimeException("Column worker failed", e.getCause());
+
+		}
+	}
+
+	/**
+	 * Stops all of the worker threads.
+	 */
+	public void shutdown() {
+		if (pool != null) pool.shutdownNow();
+	}
+}
@@ -0,0 +1,20 @@
+package com.ang.peLib.threads;
+
+/**
+ * Interface for receiving fixed simulation steps and rendered frames.
+ * @see PFixedStepScheduler
+ */
+public interface PFixedStepInterface {
+	/**
+	 * Advances the simulation by one fixed timestep.
+	 * @param dt the length of the step in seconds, the same for every step
+	 */
+	void step(double dt);
+
+	/**
+	 * Renders a frame between the last 2 simulation steps.
+	 * @param alpha how far (0.0 - 1.0) the frame is from the state before 
+	 * 				the last step to the state after it
+	 */
+	void render(double alpha);
+}
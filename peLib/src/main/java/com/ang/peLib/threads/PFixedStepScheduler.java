@@ -0,0 +1,98 @@
+package com.ang.peLib.threads;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Runnable worker that steps a simulation at a fixed rate and renders frames 
+ * in between.
+ * Time passed since the last frame is added to an accumulator, then as many 
+ * fixed steps are taken as fit in it. The leftover time is passed to the 
+ * render as a fraction of a step, so the frame can be interpolated between 
+ * the last 2 steps. Frames are paced against deadlines measured with 
+ * {@link System#nanoTime()}, so the time taken to render does not add to 
+ * the frame period. If rendering falls so far behind that more than a set 
+ * amount of steps are owed, the rest are dropped rather than trying to 
+ * catch up on them all at once.
+ * @see PFixedStepInterface
+ */
+public class PFixedStepScheduler implements Runnable, PStoppable {
+	private final long stepNs;
+	private final long frameNs;
+	private final int maxCatchUpSteps;
+	private volatile boolean stop = false;
+	private PFixedStepInterface fi;
+
+	/**
+	 * Constructs a new scheduler.
+	 * @param stepRate 		  simulation steps per second
+	 * @param frameRate 	  most frames to render per second, values less 
+	 * 						  than 1 render as fast as possible
+	 * @param maxCatchUpSteps most simulation steps to take before each frame
+	 */
+	public PFixedStepScheduler(int stepRate, int frameRate, int maxCatchUpSteps) {
+		this.stepNs = 1_000_000_000L / stepRate;
+		this.frameNs = (frameRate < 1) ? 0 : 1_000_000_000L / frameRate;
+		this.maxCatchUpSteps = maxCatchUpSteps;
+	}
+
+	/**
+	 * Assigns an interface to send steps and frames to.
+	 * @param fi interface to send steps and frames to
+	 */
+	public void setInterface(PFixedStepInterface fi) {
+		this.fi = fi;
+	}
+
+	/**
+	 * Returns the length of each simulation step.
+	 * @return the timestep in seconds
+	 */
+	public double getStepSeconds() {
+		return stepNs / 1e9;
+
+	}
+
+	/**
+	 * Instructs the scheduler to cease execution.
+	 */
+	@Override
+	public void doStop() {
+		stop = true;
+	}
+
+	/**
+	 * Steps the simulation and renders frames until stopped.
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void run() {
+		double dt = getStepSeconds();
+		long previous = System.nanoTime();
+		long nextFrame = previous;
+		long accumulator = 0;
+		while (!stop) {
+			long now = System.nanoTime();
+			accumulator += now - previous;
+			previous = now;
+			int steps = 0;
+			while ((accumulator >= stepNs) && (steps < maxCatchUpSteps)) {
+				fi.step(dt);
+				accumulator -= stepNs;
+				steps++;
+			}
+			if (accumulator >= stepNs) {
+				accumulator %= stepNs; // too far behind, drop the steps owed
+			}
+			fi.render((double) accumulator / stepNs);
+			nextFrame += frameNs;
+			long wait = nextFrame - System.nanoTime();
+			if (wait < -frameNs) {
+				nextFrame = System.nanoTime(); // missed a whole frame, do not burst
+			}
+			while (wait > 0) {
+				LockSupport.parkNanos(wait);
+				wait = nextFrame - System.nanoTime();
+			}
+		}
+	}
+}
@@ -0,0 +1,11 @@
+package com.ang.peLib.threads;
+
+/**
+ * Interface for workers that run until they are told to stop.
+ */
+public interface PStoppable {
+	/**
+	 * Instructs the worker to cease execution.
+	 */
+	void doStop();
+}
@@ -1,16 +1,21 @@
 package com.ang.peLib.threads;
 
+import java.util.concurrent.locks.LockSupport;
+
 /**
  * Runnable worker that periodically sends an update to its interface.
+ * Updates are paced against deadlines measured with {@link System#nanoTime()}, 
+ * so the time taken by each update does not add to the period between them.
+ * @see PFixedStepScheduler
  */
-public class PUpdateWorker implements Runnable {
+public class PUpdateWorker implements Runnable, PStoppable {
 	private int updateMs;
 	private volatile boolean stop = false;
 	private PThreadInterface ti;
 
 	/**
-	 * Constructs a new update worker with a time to sleep between updates.
-	 * @param updateMs milliseconds to wait between updates
+	 * Constructs a new update worker with a period between updates.
+	 * @param updateMs milliseconds from the start of one update to the next
 	 */
 	public PUpdateWorker(int updateMs) {
 		this.updateMs = updateMs;
@@ -27,6 +32,7 @@ public class PUpdateWorker implements Runnable {
 	/**
 	 * Instructs the worker to cease execution.
 	 */
+	@Override
 	public void doStop() {
 		stop = true;
 	}
@@ -37,12 +43,18 @@ public class PUpdateWorker implements Runnable {
 	 */
 	@Override
 	public void run() {
+		long periodNs = updateMs * 1_000_000L;
+		long next = System.nanoTime();
 		while (!stop) {
-			try {
-				ti.update();
-				Thread.sleep(updateMs);
-			} catch (InterruptedException e) {
-				e.printStackTrace();
+			ti.update();
+			next += periodNs;
+			long wait = next - System.nanoTime();
+			if (wait < -periodNs) {
+				next = System.nanoTime(); // missed a whole period, do not burst
+			}
+			while (wait > 0) {
+				LockSupport.parkNanos(wait);
+				wait = next - System.nanoTime();
 			}
 		}
 	}
@@ -7,6 +7,7 @@ import com.ang.peLib.hittables.PSectorWorld;
 import com.ang.peLib.maths.PInterval;
 import com.ang.peLib.maths.PRay;
 import com.ang.peLib.maths.PVec2;
+import com.ang.peLib.metrics.PMapLoadEvent;
 
 /**
  * Breaks down all non-convex sectors in a world to a number of smaller, convex sectors.
@@ -33,6 +34,8 @@ public class PConvexDecomposer {
 	 * @see    com.ang.peLib.hittables.PSectorWorld
 	 */
 	public PSectorWorld decompose() {
+		PMapLoadEvent event = new PMapLoadEvent();
+		event.begin();
 		while (true) {
 			boolean found = false;
 			for (int i = 0; i < world.getSectors().length; i++) {
@@ -42,6 +45,7 @@ public class PConvexDecomposer {
 
 		}
 		// visualizer.visualize(world); // debug
+		event.finish(PMapLoadEvent.DECOMPOSE, null, 0, world.size());
 		return world;
 
 	}
@@ -142,6 +146,7 @@ public class PConvexDecomposer {
 		}
 		PSector out = new PSector(corners, PArrays.reduceArray(portalIndices, head));
 		out.setHeight(originalSec.getFloorHeight(), originalSec.getCeilingHeight());
+		out.setWallTexture(originalSec.getWallTexture());
 		return out;
 	}
 
@@ -179,7 +184,7 @@ public class PConvexDecomposer {
 		int closeIndex = findCloseIndex(sec, intersection);
 		if (closeIndex == -1) {
 			selectedIndex = sec.insertCornerAfter(hitEdgeIndex);
-			sec.getCorners()[selectedIndex] = intersection;
+			sec.replaceCornerAt(selectedIndex, intersection);
 			if (startIndex > selectedIndex) startIndex++;
 		} else selectedIndex = closeIndex;
 		return new int[]{startIndex, selectedIndex};
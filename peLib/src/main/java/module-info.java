@@ -1,5 +1,7 @@
 open module com.ang.peLib {
 	requires transitive java.desktop; 
+	requires transitive jdk.jfr;
+	requires static jdk.incubator.vector;
 
 	exports com.ang.peLib.exceptions;
 	exports com.ang.peLib.files;
@@ -9,6 +11,7 @@ open module com.ang.peLib {
 	exports com.ang.peLib.hittables;
 	exports com.ang.peLib.inputs;
 	exports com.ang.peLib.maths;
+	exports com.ang.peLib.metrics;
 	exports com.ang.peLib.threads;
 	exports com.ang.peLib.resources;
 	exports com.ang.peLib.utils;
@@ -0,0 +1,158 @@
+package com.ang.peLib.hittables;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com.ang.peLib.maths.PInterval;
+import com.ang.peLib.maths.PRay;
+import com.ang.peLib.maths.PVec2;
+
+public class PSectorWorldTest {
+	private final static int ROOMS = 12; // along each side of the world
+	private final static double ROOM_SIZE = 4.0;
+	private final static int RAYS = 300000;
+	private final static long SEED = 7L;
+
+	/**
+	 * Casts random rays through a world of rooms and checks that the hits
+	 * found through the edge grid are the same as testing every sector in
+	 * turn. Every fifth ray starts on whole coordinates and runs along an
+	 * axis, so it can lie along the walls and corners shared by rooms.
+	 */
+	@Test
+	public void gridHitsMatchSectorScan() {
+		PSectorWorld world = rooms();
+		assertHitsMatchScan(world, new Random(SEED), RAYS);
+	}
+
+	/**
+	 * Checks that changing a sector is seen by the next query, both for
+	 * heights, which leave the world's geometry the same, and for corners.
+	 */
+	@Test
+	public void queriesSeeSectorChanges() {
+		PSectorWorld world = rooms();
+		PRay ray = new PRay(new PVec2(1.0, 1.5), new PVec2(1.0, 0.0));
+		PHitRecord rec = new PHitRecord();
+		assertTrue(world.hit(ray, PInterval.universe(), rec));
+		long version = world.getVersion();
+		long geometryVersion = world.getGeometryVersion();
+		// the closest wall is the right side of the first room
+		world.getSector(0).setHeight(-2.0, 5.0);
+		assertTrue(world.getVersion() > version);
+		assertEquals(geometryVersion, world.getGeometryVersion());
+		assertTrue(world.hit(ray, PInterval.universe(), rec));
+		assertEquals(-2.0, rec.getFloorHeight());
+		assertEquals(5.0, rec.getCeilingHeight());
+		world.getSector(0).offset(new PVec2(-0.5, 0.0));
+		assertTrue(world.getGeometryVersion() > geometryVersion);
+		assertTrue(world.hit(ray, PInterval.universe(), rec));
+		assertEquals(ROOM_SIZE - 0.5 - 1.0, rec.getT());
+		assertHitsMatchScan(world, new Random(SEED), RAYS / 10);
+	}
+
+	/**
+	 * Casts random rays through a world and compares every hit, and the
+	 * closest hit, with testing every sector of the world in turn.
+	 * @param world the world to cast rays through
+	 * @param rand	the source of the rays
+	 * @param rays	the amount of rays to cast
+	 */
+	private void assertHitsMatchScan(PSectorWorld world, Random rand, int rays) {
+		double extent = ROOMS * ROOM_SIZE;
+		PHitList hits = new PHitList(0);
+		PHitList scan = new PHitList(0);
+		PHitRecord rec = new PHitRecord();
+		for (int k = 0; k < rays; k++) {
+			double ox = (rand.nextDouble() * 1.4 - 0.2) * extent;
+			double oy = (rand.nextDouble() * 1.4 - 0.2) * extent;
+			double theta = rand.nextDouble() * 2.0 * Math.PI;
+			if (k % 5 == 0) {
+				ox = Math.round(ox);
+				oy = Math.round(oy);
+				theta = rand.nextInt(4) * Math.PI / 2.0;
+			}
+			double dx = Math.cos(theta);
+			double dy = Math.sin(theta);
+			double tMax = rand.nextBoolean()
+					? Double.POSITIVE_INFINITY
+					: rand.nextDouble() * extent / 2.0;
+			scan.clear();
+			for (int s = 0; s < world.size(); s++) {
+				world.getSector(s).allHits(ox, oy, dx, dy, tMax, s, scan);
+			}
+			world.allHits(ox, oy, dx, dy, tMax, hits);
+			String ray = "ray " + k + " from " + ox + ", " + oy + " along " + dx + ", " + dy;
+			assertEquals(scan.size(), hits.size(), ray);
+			PHitRecord closest = null;
+			for (int i = 0; i < scan.size(); i++) {
+				PHitRecord expected = scan.get(i);
+				PHitRecord actual = hits.get(i);
+				assertEquals(expected.getT(), actual.getT(), ray);
+				assertEquals(expected.getColour(), actual.getColour(), ray);
+				assertEquals(expected.getSectorIndex(), actual.getSectorIndex(), ray);
+				assertEquals(expected.getFloorHeight(), actual.getFloorHeight(), ray);
+				assertEquals(expected.getCeilingHeight(), actual.getCeilingHeight(), ray);
+				assertEquals(expected.isPortal(), actual.isPortal(), ray);
+				assertEquals(-1, actual.getEdgeIndex(), ray);
+				if ((closest == null) || (expected.getT() < closest.getT())) {
+					closest = expected;
+				}
+			}
+			PRay r = new PRay(new PVec2(ox, oy), new PVec2(dx, dy));
+			if (closest == null) {
+				assertFalse(world.hit(r, new PInterval(0.0, tMax), rec));
+				continue;
+
+			}
+			assertTrue(world.hit(r, new PInterval(0.0, tMax), rec), ray);
+			assertEquals(closest.getT(), rec.getT(), ray);
+			assertEquals(closest.getColour(), rec.getColour(), ray);
+			assertEquals(closest.getFloorHeight(), rec.getFloorHeight(), ray);
+			assertEquals(closest.getCeilingHeight(), rec.getCeilingHeight(), ray);
+		}
+	}
+
+	/**
+	 * Builds a square world of square rooms with a corner halfway along each
+	 * side, the same as rooms that share walls with their neighbours. Rooms
+	 * have random heights, and some of their walls are portals.
+	 * @return the world
+	 */
+	private PSectorWorld rooms() {
+		Random rand = new Random(SEED);
+		PSectorWorld world = new PSectorWorld(ROOMS * ROOMS);
+		for (int j = 0; j < ROOMS; j++) {
+			for (int i = 0; i < ROOMS; i++) {
+				double x0 = i * ROOM_SIZE;
+				double y0 = j * ROOM_SIZE;
+				double x1 = x0 + ROOM_SIZE;
+				double y1 = y0 + ROOM_SIZE;
+				double xm = x0 + ROOM_SIZE / 2.0;
+				double ym = y0 + ROOM_SIZE / 2.0;
+				PVec2[] corners = {
+					new PVec2(x0, y0), new PVec2(xm, y0),
+					new PVec2(x1, y0), new PVec2(x1, ym),
+					new PVec2(x1, y1), new PVec2(xm, y1),
+					new PVec2(x0, y1), new PVec2(x0, ym)
+				};
+				// a portal joins the corner at the end of a side to its middle
+				int side = rand.nextInt(4);
+				int[] portals = (rand.nextDouble() < 0.5)
+						? new int[]{side * 2 + 1, (side * 2 + 2) % 8}
+						: new int[0];
+				PSector room = new PSector(corners, portals);
+				double floor = rand.nextInt(5) * 0.25 - 1.0;
+				room.setHeight(floor, floor + 3.0 + rand.nextInt(4) * 0.5);
+				world.addSector(room);
+			}
+		}
+		return world;
+
+	}
+}